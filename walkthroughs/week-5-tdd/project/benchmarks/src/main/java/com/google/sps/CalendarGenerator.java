@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds random calendars and meeting requests for the benchmarks. The same seed always gives the
+ * same calendar, so numbers from different runs can be compared.
+ */
+public final class CalendarGenerator {
+  private static final int[] EVENT_DURATIONS = {15, 30, 30, 45, 60, 60, 90, 120};
+
+  private final Random random;
+  private final int people;
+
+  /**
+   * Creates a generator that draws attendees from {@code people} different people.
+   */
+  public CalendarGenerator(long seed, int people) {
+    this.random = new Random(seed);
+    this.people = people;
+  }
+
+  /**
+   * Returns the name of the {@code i}th person.
+   */
+  public static String person(int i) {
+    return "Person " + i;
+  }
+
+  /**
+   * Returns {@code eventsPerDay} events spread over the day, each attended by
+   * {@code attendeesPerEvent} different people.
+   */
+  public List<Event> events(int eventsPerDay, int attendeesPerEvent) {
+    List<Event> events = new ArrayList<>(eventsPerDay);
+    for (int i = 0; i < eventsPerDay; i++) {
+      int duration = EVENT_DURATIONS[random.nextInt(EVENT_DURATIONS.length)];
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - duration);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          pickPeople(Math.min(attendeesPerEvent, people))));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a request for {@code requestSize} different people, where roughly
+   * {@code optionalRatio} of them are optional.
+   */
+  public MeetingRequest request(int requestSize, double optionalRatio, long duration) {
+    List<String> attendees = new ArrayList<>(pickPeople(Math.min(requestSize, people)));
+    int optionalCount = (int) Math.round(attendees.size() * optionalRatio);
+    int mandatoryCount = attendees.size() - optionalCount;
+
+    MeetingRequest request = new MeetingRequest(attendees.subList(0, mandatoryCount), duration);
+    for (String attendee : attendees.subList(mandatoryCount, attendees.size())) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  private Set<String> pickPeople(int count) {
+    Set<String> picked = new HashSet<>();
+    while (picked.size() < count) {
+      picked.add(person(random.nextInt(people)));
+    }
+    return picked;
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the building blocks that {@link FindMeetingQuery} relies on, independent of any one
+ * request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarHelpersBenchmark {
+  @Param({"100", "1000", "10000"})
+  public int eventsPerDay;
+
+  @Param({"1", "4"})
+  public int attendeesPerEvent;
+
+  @Param({"200"})
+  public int people;
+
+  private List<Event> events;
+  private AttendeeIndex index;
+  private IntervalSet[] busyTimes;
+
+  @Setup
+  public void setUp() {
+    events = new CalendarGenerator(42, people).events(eventsPerDay, attendeesPerEvent);
+    index = AttendeeIndex.of(events);
+
+    busyTimes = new IntervalSet[people];
+    for (int i = 0; i < people; i++) {
+      busyTimes[i] = index.getBusyIntervals(CalendarGenerator.person(i));
+    }
+  }
+
+  @Benchmark
+  public AttendeeIndex buildAttendeeIndex() {
+    return AttendeeIndex.of(events);
+  }
+
+  @Benchmark
+  public IntervalSet rasterizeAndScanBitmap() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    for (IntervalSet times : busyTimes) {
+      for (int i = 0; i < times.size(); i++) {
+        bitmap.mark(times.start(i), times.end(i));
+      }
+    }
+
+    IntervalSet free = new IntervalSet();
+    bitmap.addFreeTimes(free, 30);
+    return free;
+  }
+
+  @Benchmark
+  public IntervalSet optionalAttendeeSweep() {
+    OptionalAttendeeSweep sweep = new OptionalAttendeeSweep(30);
+    for (IntervalSet times : busyTimes) {
+      sweep.addOptionalAttendee(times, 1);
+    }
+
+    IntervalSet wholeDay = new IntervalSet();
+    wholeDay.add(TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end());
+    return sweep.findBestTimes(wholeDay, false);
+  }
+
+  @Benchmark
+  public long mergeBusyTimes() {
+    // A new cache each time, so every lookup merges.
+    FreeBusyCache cache = new FreeBusyCache(people);
+    long merged = 0;
+    for (int i = 0; i < people; i++) {
+      merged += cache.getMergedBusyTimes(index, CalendarGenerator.person(i)).size();
+    }
+    return merged;
+  }
+}
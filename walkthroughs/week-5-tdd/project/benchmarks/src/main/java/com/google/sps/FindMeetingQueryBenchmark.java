@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link FindMeetingQuery#query} on synthetic calendars. Each call answers the next of a
+ * fixed set of requests so the results cannot be folded away. Narrow the parameters with
+ * {@code -p}, for example {@code -p engine=SWEEP_LINE -p eventsPerDay=10000}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindMeetingQueryBenchmark {
+  // A power of two, so the next request can be picked with a mask.
+  private static final int REQUESTS = 64;
+
+  private static final long MEETING_DURATION = 30;
+
+  @Param({"LEGACY", "SWEEP_LINE", "BITMAP"})
+  public FindMeetingQuery.Engine engine;
+
+  @Param({"100", "1000", "10000"})
+  public int eventsPerDay;
+
+  @Param({"1", "4"})
+  public int attendeesPerEvent;
+
+  @Param({"2", "8", "32"})
+  public int requestSize;
+
+  @Param({"0.0", "0.5"})
+  public double optionalRatio;
+
+  @Param({"200"})
+  public int people;
+
+  // Whether every request also asks for an optional person who is in no event, and so has no ID.
+  @Param({"false", "true"})
+  public boolean unknownAttendee;
+
+  private List<Event> events;
+  private AttendeeIndex index;
+  private MeetingRequest[] requests;
+  private MeetingRequest[] maximizingRequests;
+  private FindMeetingQuery query;
+  private FindMeetingQuery cachedQuery;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(42, people);
+    events = generator.events(eventsPerDay, attendeesPerEvent);
+    index = AttendeeIndex.of(events);
+
+    requests = new MeetingRequest[REQUESTS];
+    maximizingRequests = new MeetingRequest[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      requests[i] = generator.request(requestSize, optionalRatio, MEETING_DURATION);
+      maximizingRequests[i] = generator.request(requestSize, optionalRatio, MEETING_DURATION);
+      maximizingRequests[i].setMaximizeOptionalAttendees(true);
+      if (unknownAttendee) {
+        requests[i].addOptionalAttendee("Unknown Person " + i);
+        maximizingRequests[i].addOptionalAttendee("Unknown Person " + i);
+      }
+    }
+
+    query = new FindMeetingQuery().withEngine(engine);
+    cachedQuery = query.withFreeBusyCache(new FreeBusyCache(people));
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryEvents() {
+    return query.query(events, nextRequest(requests));
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryIndex() {
+    return query.query(index, nextRequest(requests));
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryCachedIndex() {
+    return cachedQuery.query(index, nextRequest(requests));
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryMaximizingOptional() {
+    return query.query(index, nextRequest(maximizingRequests));
+  }
+
+  private MeetingRequest nextRequest(MeetingRequest[] requests) {
+    return requests[next++ & (REQUESTS - 1)];
+  }
+}
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link MeetingScheduler} placing a 30 minute 1:1 for every pair of people in a team
+ * over a working week, on top of each day's existing events. The time is per batch; divide the
+ * number of pairs by it for meetings per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeetingSchedulerBenchmark {
+  private static final int DAYS = 5;
+  private static final long MEETING_DURATION = 30;
+
+  @Param({"20", "50", "100"})
+  public int teamSize;
+
+  @Param({"200"})
+  public int eventsPerDay;
+
+  private final MeetingScheduler scheduler = new MeetingScheduler();
+  private List<List<Event>> events;
+  private List<MeetingRequest> requests;
+  private List<AvailabilityIndex> days;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(42, teamSize);
+    events = new ArrayList<>(DAYS);
+    for (int day = 0; day < DAYS; day++) {
+      events.add(generator.events(eventsPerDay, 2));
+    }
+
+    requests = new ArrayList<>();
+    for (int i = 0; i < teamSize; i++) {
+      for (int j = i + 1; j < teamSize; j++) {
+        requests.add(new MeetingRequest(
+            Arrays.asList(CalendarGenerator.person(i), CalendarGenerator.person(j)),
+            MEETING_DURATION));
+      }
+    }
+  }
+
+  // Every batch starts from the same calendars, since scheduling books the meetings into them.
+  @Setup(Level.Invocation)
+  public void resetDays() {
+    days = new ArrayList<>(DAYS);
+    for (List<Event> dayEvents : events) {
+      days.add(AvailabilityIndex.of(dayEvents));
+    }
+  }
+
+  @Benchmark
+  public Schedule scheduleOneOnOnes() {
+    return scheduler.schedule(days, requests);
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sweep line engine scanning a list of events on the calling thread with scanning it
+ * in parallel on the fork-join pool, to find the threshold to pass to {@link FindMeetingQuery} on
+ * a multi-core machine. Parallel collection is off by default. Run it with, for example, {@code -p
+ * eventsPerDay=10000,100000}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelCollectionBenchmark {
+  // A power of two, so the next request can be picked with a mask.
+  private static final int REQUESTS = 64;
+
+  private static final long MEETING_DURATION = 30;
+
+  @Param({"1000", "10000", "30000", "100000", "1000000"})
+  public int eventsPerDay;
+
+  @Param({"8"})
+  public int requestSize;
+
+  @Param({"2000"})
+  public int people;
+
+  private List<Event> events;
+  private MeetingRequest[] requests;
+  private FindMeetingQuery sequentialQuery;
+  private FindMeetingQuery parallelQuery;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(42, people);
+    events = generator.events(eventsPerDay, 2);
+
+    requests = new MeetingRequest[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      requests[i] = generator.request(requestSize, 0.5, MEETING_DURATION);
+    }
+
+    sequentialQuery = new FindMeetingQuery().withParallelThreshold(Integer.MAX_VALUE);
+    parallelQuery = new FindMeetingQuery().withParallelThreshold(0);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> sequential() {
+    return sequentialQuery.query(events, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> parallel() {
+    return parallelQuery.query(events, nextRequest());
+  }
+
+  private MeetingRequest nextRequest() {
+    return requests[next++ & (REQUESTS - 1)];
+  }
+}
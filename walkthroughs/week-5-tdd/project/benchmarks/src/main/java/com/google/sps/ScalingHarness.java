@@ -0,0 +1,192 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the engines side by side on random calendars of growing size, checks that they give the
+ * same answers as {@code SWEEP_LINE} and records how long each takes per query. A least-squares
+ * fit of log time against log events gives each engine's scaling exponent, near 1 for work linear
+ * in the events and near 2 for quadratic work, and the harness exits with status 1 if a gated
+ * engine scales worse than allowed or any answers differ. Unlike the JMH benchmarks it is one
+ * quick pass meant for CI:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.google.sps.ScalingHarness \
+ *     maxEvents=262144 maxExponent=1.3 gate=SWEEP_LINE,BITMAP
+ * </pre>
+ *
+ * <p>Options are {@code name=value} pairs: {@code minEvents}, {@code maxEvents}, {@code people},
+ * {@code legacyMaxEvents} (the original engine is left out above it, as it is quadratic in the
+ * attendees' busy times), {@code maxExponent}, {@code gate}, {@code millisPerPoint} and {@code
+ * seed}. The table is printed as CSV.
+ */
+public final class ScalingHarness {
+  private static final int REQUESTS = 64;
+  private static final int REQUEST_SIZE = 8;
+  private static final long MEETING_DURATION = 30;
+
+  private ScalingHarness() {}
+
+  public static void main(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("Expected name=value but got " + arg);
+      }
+      options.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+
+    int minEvents = Integer.parseInt(options.getOrDefault("minEvents", "1024"));
+    int maxEvents = Integer.parseInt(options.getOrDefault("maxEvents", "131072"));
+    int people = Integer.parseInt(options.getOrDefault("people", "500"));
+    int legacyMaxEvents = Integer.parseInt(options.getOrDefault("legacyMaxEvents", "16384"));
+    double maxExponent = Double.parseDouble(options.getOrDefault("maxExponent", "1.5"));
+    long millisPerPoint = Long.parseLong(options.getOrDefault("millisPerPoint", "200"));
+    long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+    Set<FindMeetingQuery.Engine> gate = EnumSet.noneOf(FindMeetingQuery.Engine.class);
+    for (String engine : options.getOrDefault("gate", "SWEEP_LINE,BITMAP").split(",")) {
+      gate.add(FindMeetingQuery.Engine.valueOf(engine.trim()));
+    }
+
+    Map<FindMeetingQuery.Engine, List<double[]>> points =
+        new EnumMap<>(FindMeetingQuery.Engine.class);
+    int mismatches = 0;
+    System.out.println("engine,events,nanosPerQuery");
+    for (int events = minEvents; events <= maxEvents; events *= 2) {
+      CalendarGenerator generator = new CalendarGenerator(seed + events, people);
+      List<Event> calendar = generator.events(events, 2);
+      MeetingRequest[] requests = new MeetingRequest[REQUESTS];
+      for (int i = 0; i < REQUESTS; i++) {
+        requests[i] = generator.request(REQUEST_SIZE, 0.5, MEETING_DURATION);
+      }
+
+      // The original engine is only timed. It finds no times, where the others find the whole
+      // day, for some requests with optional attendees, and FindMeetingQueryFuzzTest checks it
+      // with that allowed for.
+      FindMeetingQuery reference =
+          new FindMeetingQuery().withEngine(FindMeetingQuery.Engine.SWEEP_LINE);
+      List<Collection<TimeRange>> expected = answers(reference, calendar, requests);
+      for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+        if (engine == FindMeetingQuery.Engine.LEGACY && events > legacyMaxEvents) {
+          continue;
+        }
+
+        // The parallel scan is left out so that the times measure the engine alone.
+        FindMeetingQuery query = new FindMeetingQuery().withEngine(engine);
+        if (engine != FindMeetingQuery.Engine.LEGACY) {
+          List<Collection<TimeRange>> answers = answers(query, calendar, requests);
+          for (int i = 0; i < REQUESTS; i++) {
+            if (!expected.get(i).equals(answers.get(i))) {
+              mismatches++;
+              System.err.printf("SWEEP_LINE and %s differ at %d events, request %s: %s and %s%n",
+                  engine, events, describe(requests[i]), expected.get(i), answers.get(i));
+            }
+          }
+        }
+
+        double nanos = nanosPerQuery(query, calendar, requests, millisPerPoint);
+        points.computeIfAbsent(engine, key -> new ArrayList<>()).add(new double[] {events, nanos});
+        System.out.printf("%s,%d,%.0f%n", engine, events, nanos);
+      }
+    }
+
+    boolean failed = mismatches > 0;
+    for (Map.Entry<FindMeetingQuery.Engine, List<double[]>> entry : points.entrySet()) {
+      double exponent = scalingExponent(entry.getValue());
+      boolean tooSlow = gate.contains(entry.getKey()) && exponent > maxExponent;
+      failed |= tooSlow;
+      System.out.printf("# %s scales as events^%.2f%s%n", entry.getKey(), exponent,
+          tooSlow ? ", above the allowed " + maxExponent : "");
+    }
+    if (mismatches > 0) {
+      System.out.println("# " + mismatches + " answers differ between engines");
+    }
+    System.exit(failed ? 1 : 0);
+  }
+
+  private static List<Collection<TimeRange>> answers(
+      FindMeetingQuery query, List<Event> calendar, MeetingRequest[] requests) {
+    List<Collection<TimeRange>> answers = new ArrayList<>(requests.length);
+    for (MeetingRequest request : requests) {
+      answers.add(new ArrayList<>(query.query(calendar, request)));
+    }
+    return answers;
+  }
+
+  /**
+   * Returns the average time one query takes, after running the queries for as long again to warm
+   * up the JIT.
+   */
+  private static double nanosPerQuery(
+      FindMeetingQuery query, List<Event> calendar, MeetingRequest[] requests, long millis) {
+    long sink = 0;
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      long deadline = start + millis * 1_000_000;
+      long queries = 0;
+      long now;
+      do {
+        sink += query.query(calendar, requests[(int) (queries++ % REQUESTS)]).size();
+        now = System.nanoTime();
+      } while (now < deadline || queries < REQUESTS);
+      if (round == 1) {
+        // Use the answers so the JIT cannot drop the queries.
+        return sink < 0 ? -1 : (double) (now - start) / queries;
+      }
+    }
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns the slope of the least-squares line through log time against log events, using the
+   * larger half of the sizes, where fixed costs no longer hide how the time grows.
+   */
+  static double scalingExponent(List<double[]> points) {
+    List<double[]> upper = points.subList(points.size() / 2, points.size());
+    if (upper.size() < 2) {
+      return Double.NaN;
+    }
+
+    double sumX = 0;
+    double sumY = 0;
+    double sumXx = 0;
+    double sumXy = 0;
+    for (double[] point : upper) {
+      double x = Math.log(point[0]);
+      double y = Math.log(point[1]);
+      sumX += x;
+      sumY += y;
+      sumXx += x * x;
+      sumXy += x * y;
+    }
+    int n = upper.size();
+    return (n * sumXy - sumX * sumY) / (n * sumXx - sumX * sumX);
+  }
+
+  private static String describe(MeetingRequest request) {
+    return request.getAttendees() + " optional " + request.getOptionalAttendees() + " for "
+        + request.getDuration();
+  }
+}
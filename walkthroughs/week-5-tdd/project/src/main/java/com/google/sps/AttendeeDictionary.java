@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AttendeeDictionary gives every attendee name a dense int ID, starting from zero, so that the
+ * query path can compare people as ints instead of hashing their names. Only events give names
+ * IDs; requests look up the names they ask about, so names that are only ever asked about do not
+ * fill the dictionary. The same name always gets the same ID, and IDs are never reused or
+ * forgotten. Looking up a name never locks, and the dictionary is safe to share between
+ * threads.
+ */
+public final class AttendeeDictionary {
+  private static final AttendeeDictionary DEFAULT = new AttendeeDictionary();
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Names by ID. Guarded by this.
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Returns the dictionary that events and meeting requests are encoded with.
+   */
+  public static AttendeeDictionary getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the ID of {@code name}, giving it the next free ID if it does not have one yet.
+   *
+   * @param name The attendee's name. Must be non-null.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      // Another thread may have added the name since the lookup above.
+      id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        names.add(name);
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Returns the ID of {@code name}, or -1 if it does not have one.
+   *
+   * @param name The attendee's name. Must be non-null.
+   */
+  public int lookup(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    return ids.getOrDefault(name, -1);
+  }
+
+  /**
+   * Returns the name with the given ID.
+   */
+  public synchronized String getName(int id) {
+    if (id < 0 || id >= names.size()) {
+      throw new IllegalArgumentException("unknown id " + id);
+    }
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of names in the dictionary. A name counts once its ID can be looked up, so
+   * a lookup made after reading the size sees every name it counts. Never locks.
+   */
+  public int size() {
+    return ids.size();
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AttendeeIndex maps each attendee to the times they are busy, so that a query only has to look at
+ * the calendars of the people in its request instead of every known event. An index is read-only
+ * once built and can be shared between threads and requests.
+ */
+public final class AttendeeIndex {
+  private static final IntervalSet NO_TIMES = new IntervalSet(1);
+
+  private static final MinuteBitmap NO_BITMAP = new MinuteBitmap();
+
+  // Each attendee's busy times, sorted by start time.
+  private final Map<String, IntervalSet> busyTimes;
+
+  // The same busy times rasterized into one bit per minute of the day, built the first time the
+  // bitmap engine asks for each attendee, since the other engines never read them.
+  private final Map<String, MinuteBitmap> busyBitmaps = new ConcurrentHashMap<>();
+
+  private AttendeeIndex(Map<String, IntervalSet> busyTimes) {
+    this.busyTimes = busyTimes;
+  }
+
+  /**
+   * Builds an index over a collection of events.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public static AttendeeIndex of(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Map<String, IntervalSet> busyTimes = new HashMap<>();
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      for (String attendee : event.getAttendees()) {
+        busyTimes.computeIfAbsent(attendee, key -> new IntervalSet()).add(when.start(), when.end());
+      }
+    }
+
+    for (IntervalSet times : busyTimes.values()) {
+      times.sort();
+    }
+    return fromBusyTimes(busyTimes);
+  }
+
+  /**
+   * Builds an index that takes ownership of each attendee's busy times.
+   *
+   * @param busyTimes Each attendee's busy times, every set sorted by start time.
+   */
+  static AttendeeIndex fromBusyTimes(Map<String, IntervalSet> busyTimes) {
+    return new AttendeeIndex(busyTimes);
+  }
+
+  /**
+   * Returns a new index where {@code removed} is taken out and {@code added} is put in. Only the
+   * attendees of those two events are rebuilt; everyone else shares their busy times with this
+   * index. The map from attendee to busy times is still copied whole, so an edit costs a map entry
+   * for every attendee in the index, plus the busy times of the attendees it touches.
+   *
+   * @param removed An event that is in this index, or null to only add.
+   * @param added An event to add, or null to only remove.
+   */
+  AttendeeIndex withChange(Event removed, Event added) {
+    Set<String> changed = new HashSet<>();
+    if (removed != null) {
+      changed.addAll(removed.getAttendees());
+    }
+    if (added != null) {
+      changed.addAll(added.getAttendees());
+    }
+
+    Map<String, IntervalSet> newBusyTimes = new HashMap<>(busyTimes);
+    for (String attendee : changed) {
+      IntervalSet oldTimes = getBusyIntervals(attendee);
+      IntervalSet times = new IntervalSet(oldTimes.size() + 1);
+
+      // Drop one copy of the removed event's time, since the attendee may have another event then.
+      boolean isRemoved = removed == null || !removed.getAttendees().contains(attendee);
+      for (int i = 0; i < oldTimes.size(); i++) {
+        if (!isRemoved && oldTimes.start(i) == removed.getWhen().start()
+            && oldTimes.end(i) == removed.getWhen().end()) {
+          isRemoved = true;
+        } else {
+          times.add(oldTimes.start(i), oldTimes.end(i));
+        }
+      }
+      if (added != null && added.getAttendees().contains(attendee)) {
+        times.add(added.getWhen().start(), added.getWhen().end());
+      }
+
+      if (times.isEmpty()) {
+        newBusyTimes.remove(attendee);
+      } else {
+        times.sort();
+        newBusyTimes.put(attendee, times);
+      }
+    }
+    return new AttendeeIndex(newBusyTimes);
+  }
+
+  /**
+   * Returns a read-only set of every attendee that has at least one event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(busyTimes.keySet());
+  }
+
+  /**
+   * Returns a read-only list of the times {@code attendee} is busy, sorted by start time. People
+   * without any events get an empty list.
+   */
+  public List<TimeRange> getBusyTimes(String attendee) {
+    return Collections.unmodifiableList(getBusyIntervals(attendee).toTimeRanges());
+  }
+
+  /**
+   * Returns the index's own sorted set of the times {@code attendee} is busy. This avoids a copy on
+   * the query path, so callers must not modify it.
+   */
+  IntervalSet getBusyIntervals(String attendee) {
+    return busyTimes.getOrDefault(attendee, NO_TIMES);
+  }
+
+  /**
+   * Returns the index's own bitmap of the minutes {@code attendee} is busy. Callers must not modify
+   * it.
+   */
+  MinuteBitmap getBusyBitmap(String attendee) {
+    IntervalSet times = busyTimes.get(attendee);
+    if (times == null) {
+      return NO_BITMAP;
+    }
+    return busyBitmaps.computeIfAbsent(attendee, key -> toBitmap(times));
+  }
+
+  private static MinuteBitmap toBitmap(IntervalSet times) {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    for (int i = 0; i < times.size(); i++) {
+      bitmap.mark(times.start(i), times.end(i));
+    }
+    return bitmap;
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * AttendeeSet is an immutable set of attendee IDs from an {@link AttendeeDictionary}, kept as a
+ * sorted int array. When every ID is small enough, the set also keeps a bitmap of its IDs, which
+ * makes a membership test a single bit lookup instead of a binary search.
+ */
+final class AttendeeSet {
+  static final AttendeeSet EMPTY = new AttendeeSet(new int[0]);
+
+  // Sets whose largest ID is below this also get a bitmap, which is then at most 512 bytes.
+  private static final int BITMAP_LIMIT = 64 * Long.SIZE;
+
+  private final int[] ids;
+
+  // Bit i is set if ID i is in the set, or null if some ID is too large.
+  private final long[] bitmap;
+
+  private AttendeeSet(int[] ids) {
+    this.ids = ids;
+    if (ids.length > 0 && ids[ids.length - 1] < BITMAP_LIMIT) {
+      bitmap = new long[ids[ids.length - 1] / Long.SIZE + 1];
+      for (int id : ids) {
+        bitmap[id / Long.SIZE] |= 1L << id;
+      }
+    } else {
+      bitmap = null;
+    }
+  }
+
+  /**
+   * Encodes names into a set of IDs, interning any name the dictionary does not know yet.
+   */
+  static AttendeeSet of(Collection<String> names, AttendeeDictionary dictionary) {
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      ids[size++] = dictionary.intern(name);
+    }
+    return sortedAndDistinct(ids, size);
+  }
+
+  /**
+   * Encodes the names the dictionary already knows into a set of IDs, leaving out the others. This
+   * suits names that are only looked for, such as a request's attendees, since a name without an ID
+   * is in no event, and it keeps such names from filling the dictionary.
+   */
+  static AttendeeSet lookup(Collection<String> names, AttendeeDictionary dictionary) {
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      int id = dictionary.lookup(name);
+      if (id >= 0) {
+        ids[size++] = id;
+      }
+    }
+    return size == 0 ? EMPTY : sortedAndDistinct(ids, size);
+  }
+
+  private static AttendeeSet sortedAndDistinct(int[] ids, int size) {
+    Arrays.sort(ids, 0, size);
+
+    // Drop duplicates, which only a collection that is not a set can have.
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || ids[i] != ids[i - 1]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return new AttendeeSet(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+  }
+
+  /**
+   * Returns the number of IDs in the set.
+   */
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Returns the {@code i}th smallest ID in the set.
+   */
+  int get(int i) {
+    return ids[i];
+  }
+
+  /**
+   * Returns true if {@code id} is in the set.
+   */
+  boolean contains(int id) {
+    if (bitmap != null) {
+      int word = id / Long.SIZE;
+      return id >= 0 && word < bitmap.length && (bitmap[word] & (1L << id)) != 0;
+    }
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /**
+   * Returns the position of {@code id} in the sorted set, or a negative number if it is missing.
+   */
+  int indexOf(int id) {
+    return Arrays.binarySearch(ids, id);
+  }
+
+  /**
+   * Returns true if the two sets have an ID in common.
+   */
+  boolean intersects(AttendeeSet other) {
+    // Test the smaller set's IDs against the larger set.
+    AttendeeSet small = ids.length <= other.ids.length ? this : other;
+    AttendeeSet large = small == this ? other : this;
+    for (int id : small.ids) {
+      if (large.contains(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,242 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AvailabilityIndex keeps a count of events per minute for every attendee, so that a live calendar
+ * can take a steady stream of added and removed events without being rebuilt. Each change is a
+ * range update in O(log n) per attendee, where n is the number of minutes in a day, and free times
+ * are read straight out of the counts without sorting any events. A group's free times come from
+ * merging the members' busy runs, so a query allocates nothing per minute of the day.
+ *
+ * <p>Only minutes that are actually covered by an event are busy, but as in the query engines an
+ * event with no duration still splits the free time around it in two, so the index also keeps
+ * where such events fall.
+ *
+ * <p>Every method locks the index itself, so each call is atomic and the index is safe to share
+ * between threads. A caller that reads free times and then books one of them, as
+ * {@link MeetingScheduler} does, must hold that same lock across both steps by synchronizing on
+ * the index, or another thread may book the time in between.
+ */
+public final class AvailabilityIndex {
+  // Each attendee's count of events per minute.
+  private final Map<String, MinuteSegmentTree> trees = new HashMap<>();
+
+  // Each attendee's count of events with no duration by the minute they fall on, for those who
+  // have any inside the day.
+  private final Map<String, TreeMap<Integer, Integer>> splits = new HashMap<>();
+
+  // Number of copies of each event in the index, so that only added events can be removed.
+  private final Map<Event, Integer> events = new HashMap<>();
+
+  /**
+   * Builds an index over a collection of events.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public static AvailabilityIndex of(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    AvailabilityIndex index = new AvailabilityIndex();
+    for (Event event : events) {
+      index.addEvent(event);
+    }
+    return index;
+  }
+
+  /**
+   * Marks the time of {@code event} as busy for each of its attendees.
+   *
+   * @param event The event to add. Must be non-null.
+   */
+  public synchronized void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    events.merge(event, 1, Integer::sum);
+    TimeRange when = event.getWhen();
+    if (splitsDay(when)) {
+      for (String attendee : event.getAttendees()) {
+        splits.computeIfAbsent(attendee, key -> new TreeMap<>())
+            .merge(when.start(), 1, Integer::sum);
+      }
+    }
+    if (!coversMinutes(when)) {
+      return;
+    }
+
+    for (String attendee : event.getAttendees()) {
+      trees.computeIfAbsent(attendee, key -> new MinuteSegmentTree())
+          .add(when.start(), when.end(), 1);
+    }
+  }
+
+  /**
+   * Frees the time of {@code event} for each of its attendees, unless they have other events then.
+   *
+   * @param event An event that was added to the index. Must be non-null.
+   */
+  public synchronized void removeEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    Integer count = events.get(event);
+    if (count == null) {
+      throw new IllegalArgumentException("event is not in the index");
+    }
+
+    if (count == 1) {
+      events.remove(event);
+    } else {
+      events.put(event, count - 1);
+    }
+
+    TimeRange when = event.getWhen();
+    if (splitsDay(when)) {
+      for (String attendee : event.getAttendees()) {
+        TreeMap<Integer, Integer> attendeeSplits = splits.get(attendee);
+        attendeeSplits.merge(when.start(), -1, (a, b) -> a + b == 0 ? null : a + b);
+        if (attendeeSplits.isEmpty()) {
+          splits.remove(attendee);
+        }
+      }
+    }
+    if (!coversMinutes(when)) {
+      return;
+    }
+
+    for (String attendee : event.getAttendees()) {
+      MinuteSegmentTree tree = trees.get(attendee);
+      tree.add(when.start(), when.end(), -1);
+
+      // Drop the trees of people who are no longer busy at all, so they do not pile up.
+      if (tree.getLongestFreeRun() == TimeRange.WHOLE_DAY.duration()) {
+        trees.remove(attendee);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of events in the index.
+   */
+  public synchronized int size() {
+    int size = 0;
+    for (int count : events.values()) {
+      size += count;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the length in minutes of the longest time that everyone in {@code attendees} is free.
+   */
+  public synchronized int getLongestFreeTime(Collection<String> attendees) {
+    if (attendees.size() == 1 && !splits.containsKey(attendees.iterator().next())) {
+      MinuteSegmentTree tree = trees.get(attendees.iterator().next());
+      return tree == null ? TimeRange.WHOLE_DAY.duration() : tree.getLongestFreeRun();
+    }
+
+    IntervalSet freeTimes = getGroupBusyTimes(attendees).complement(
+        TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.duration());
+    int longest = 0;
+    for (int i = 0; i < freeTimes.size(); i++) {
+      longest = Math.max(longest, freeTimes.end(i) - freeTimes.start(i));
+    }
+    return longest;
+  }
+
+  /**
+   * Returns the times of at least {@code duration} minutes that everyone in {@code attendees} is
+   * free, in chronological order.
+   */
+  synchronized IntervalSet getFreeTimes(Collection<String> attendees, long duration) {
+    if (attendees.size() == 1 && !splits.containsKey(attendees.iterator().next())) {
+      MinuteSegmentTree tree = trees.get(attendees.iterator().next());
+      if (tree != null) {
+        IntervalSet freeTimes = new IntervalSet();
+        tree.addFreeTimes(freeTimes, duration);
+        return freeTimes;
+      }
+    }
+
+    return getGroupBusyTimes(attendees).gaps(
+        TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.duration(), Math.max(duration, 1));
+  }
+
+  /**
+   * Returns the merged times {@code attendee} is busy, in chronological order. Each event with no
+   * duration that falls outside those times is included as an empty interval, where it splits the
+   * free time.
+   */
+  synchronized IntervalSet getBusyTimes(String attendee) {
+    IntervalSet busyTimes = new IntervalSet();
+    MinuteSegmentTree tree = trees.get(attendee);
+    if (tree != null) {
+      tree.addBusyTimes(busyTimes);
+    }
+
+    TreeMap<Integer, Integer> attendeeSplits = splits.get(attendee);
+    if (attendeeSplits == null) {
+      return busyTimes;
+    }
+    IntervalSet points = new IntervalSet(attendeeSplits.size());
+    for (int minute : attendeeSplits.keySet()) {
+      points.add(minute, minute);
+    }
+    return busyTimes.union(points);
+  }
+
+  /**
+   * Whether {@code when} covers any minute of the day, and so changes the counts.
+   */
+  private static boolean coversMinutes(TimeRange when) {
+    return Math.max(when.start(), TimeRange.START_OF_DAY)
+        < Math.min(when.end(), TimeRange.WHOLE_DAY.duration());
+  }
+
+  /**
+   * Whether {@code when} has no duration and falls inside the day, and so splits the free time.
+   */
+  private static boolean splitsDay(TimeRange when) {
+    return when.duration() == 0 && when.start() > TimeRange.START_OF_DAY
+        && when.start() < TimeRange.WHOLE_DAY.duration();
+  }
+
+  /**
+   * Returns the busy runs of everyone in {@code attendees}, sorted by start time. Each attendee's
+   * runs come out of their tree already merged, so a k-way merge puts them in order in
+   * O(r log k) for r runs, without touching the minutes in between.
+   */
+  private IntervalSet getGroupBusyTimes(Collection<String> attendees) {
+    List<IntervalSet> busyTimes = new ArrayList<>(attendees.size());
+    for (String attendee : attendees) {
+      if (trees.containsKey(attendee) || splits.containsKey(attendee)) {
+        busyTimes.add(getBusyTimes(attendee));
+      }
+    }
+    return IntervalSet.mergeSorted(busyTimes);
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BusyTimeline holds the times one person is busy as disjoint, merged intervals keyed by start
+ * time. Adding an interval merges it with any it touches, and the busy time around any point can be
+ * found in O(log n) without looking at the rest of the timeline.
+ */
+final class BusyTimeline {
+  // Start of each busy interval mapped to its exclusive end. Intervals never overlap or touch. An
+  // interval may be empty, as a zero-length event still splits the free time around it.
+  private final TreeMap<Long, Long> busy = new TreeMap<>();
+
+  /**
+   * Marks {@code [start, end)} as busy. If the interval is empty, only the point {@code start} is
+   * kept, unless it falls within or at the edge of a busy interval.
+   */
+  void add(long start, long end) {
+    if (start > end) {
+      return;
+    }
+
+    Map.Entry<Long, Long> before = busy.floorEntry(start);
+    if (before != null && before.getValue() >= start) {
+      start = before.getKey();
+      end = Math.max(end, before.getValue());
+    }
+
+    Map.Entry<Long, Long> after = busy.ceilingEntry(start);
+    while (after != null && after.getKey() <= end) {
+      end = Math.max(end, after.getValue());
+      busy.remove(after.getKey());
+      after = busy.higherEntry(after.getKey());
+    }
+    busy.put(start, end);
+  }
+
+  /**
+   * Returns the number of disjoint busy intervals.
+   */
+  int size() {
+    return busy.size();
+  }
+
+  /**
+   * Returns the busy intervals that end after {@code time}, in start order, as start to end
+   * entries. The first one may have started before {@code time}.
+   */
+  Iterator<Map.Entry<Long, Long>> busyFrom(long time) {
+    Map.Entry<Long, Long> before = busy.floorEntry(time);
+    long from = before != null && before.getValue() > time ? before.getKey() : time;
+    return Collections.unmodifiableMap(busy.tailMap(from, true)).entrySet().iterator();
+  }
+}
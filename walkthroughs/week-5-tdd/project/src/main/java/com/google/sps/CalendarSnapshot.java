@@ -0,0 +1,181 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CalendarSnapshot is a read-only calendar in a compact binary file written by
+ * {@link CalendarSnapshotWriter}. The file is memory-mapped, so opening it only reads and checks
+ * the offsets and attendee names, and a query reads the busy times of the people it asks about
+ * straight out of the mapped columns. No events or bitmaps are ever built for the default engine.
+ *
+ * <p>The file is big-endian and laid out as:
+ *
+ * <pre>
+ *   int magic, int format version, int attendee count (a), int interval count (n)
+ *   int[a + 1]  offsets: attendee i's intervals are offsets[i] to offsets[i + 1]
+ *   int[n]      starts, grouped by attendee and sorted within each attendee
+ *   int[n]      ends, in the same order
+ *   a names     each an int byte length followed by that many bytes of UTF-8
+ * </pre>
+ *
+ * <p>Each attendee's intervals are merged, so none of them overlap or touch. All the int columns
+ * come first so they stay aligned. A snapshot is safe to share between threads.
+ */
+public final class CalendarSnapshot {
+  static final int MAGIC = 0x43414c53;
+  static final int FORMAT_VERSION = 1;
+
+  // The size of the magic, version and counts at the start of the file.
+  static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+  private final IntBuffer offsets;
+  private final IntBuffer starts;
+  private final IntBuffer ends;
+
+  // Attendee name to their position in the columns.
+  private final Map<String, Integer> attendees;
+
+  private CalendarSnapshot(
+      IntBuffer offsets, IntBuffer starts, IntBuffer ends, Map<String, Integer> attendees) {
+    this.offsets = offsets;
+    this.starts = starts;
+    this.ends = ends;
+    this.attendees = attendees;
+  }
+
+  /**
+   * Maps a snapshot file into memory. The mapping stays valid after the channel is closed.
+   *
+   * @param file A file written by {@link CalendarSnapshotWriter}.
+   * @throws IOException if the file cannot be read, is not a calendar snapshot, or its offsets or
+   *     names do not fit the file
+   */
+  public static CalendarSnapshot open(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a calendar snapshot");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException(file + " has unsupported format version " + buffer.getInt(4));
+    }
+
+    int attendeeCount = buffer.getInt(8);
+    int intervalCount = buffer.getInt(12);
+    if (attendeeCount < 0 || intervalCount < 0) {
+      throw new IOException(file + " has negative counts");
+    }
+    // Work in longs so that huge counts cannot overflow past the size check.
+    long offsetsStart = HEADER_BYTES;
+    long startsStart = offsetsStart + (attendeeCount + 1L) * Integer.BYTES;
+    long endsStart = startsStart + (long) intervalCount * Integer.BYTES;
+    long namesStart = endsStart + (long) intervalCount * Integer.BYTES;
+    if (namesStart > buffer.limit()) {
+      throw new IOException(file + " is truncated");
+    }
+
+    // Each attendee's intervals must lie inside the columns, in order, or queries read past them.
+    IntBuffer offsets = column(buffer, (int) offsetsStart, attendeeCount + 1);
+    if (offsets.get(0) != 0 || offsets.get(attendeeCount) != intervalCount) {
+      throw new IOException(file + " has offsets that do not cover the " + intervalCount
+          + " intervals");
+    }
+    for (int i = 0; i < attendeeCount; i++) {
+      if (offsets.get(i) > offsets.get(i + 1)) {
+        throw new IOException(file + " has offsets that go backwards at attendee " + i);
+      }
+    }
+
+    Map<String, Integer> attendees = new HashMap<>(attendeeCount * 2);
+    ByteBuffer names = buffer.duplicate();
+    names.position((int) namesStart);
+    for (int i = 0; i < attendeeCount; i++) {
+      int length = names.remaining() < Integer.BYTES ? -1 : names.getInt();
+      if (length < 0 || length > names.remaining()) {
+        throw new IOException(file + " has a truncated name for attendee " + i);
+      }
+      byte[] name = new byte[length];
+      names.get(name);
+      attendees.put(new String(name, StandardCharsets.UTF_8), i);
+    }
+
+    return new CalendarSnapshot(offsets, column(buffer, (int) startsStart, intervalCount),
+        column(buffer, (int) endsStart, intervalCount), attendees);
+  }
+
+  /**
+   * Returns a read-only set of every attendee in the snapshot.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees.keySet());
+  }
+
+  /**
+   * Returns the merged times {@code attendee} is busy, in chronological order. People who are not
+   * in the snapshot get an empty set.
+   */
+  IntervalSet getBusyIntervals(String attendee) {
+    Integer position = attendees.get(attendee);
+    if (position == null) {
+      return new IntervalSet(1);
+    }
+
+    int from = offsets.get(position);
+    int to = offsets.get(position + 1);
+    IntervalSet busyTimes = new IntervalSet(to - from);
+    for (int i = from; i < to; i++) {
+      busyTimes.add(starts.get(i), ends.get(i));
+    }
+    return busyTimes;
+  }
+
+  /**
+   * Returns an index over just the given attendees, read from the mapped columns. Attendees who
+   * are not in the snapshot are left out.
+   */
+  public AttendeeIndex getAttendeeIndex(Collection<String> attendees) {
+    Map<String, IntervalSet> busyTimes = new HashMap<>();
+    for (String attendee : attendees) {
+      if (this.attendees.containsKey(attendee)) {
+        busyTimes.put(attendee, getBusyIntervals(attendee));
+      }
+    }
+    return AttendeeIndex.fromBusyTimes(busyTimes);
+  }
+
+  private static IntBuffer column(ByteBuffer buffer, int start, int length) {
+    ByteBuffer column = buffer.duplicate();
+    column.position(start);
+    column.limit(start + length * Integer.BYTES);
+    return column.slice().asIntBuffer();
+  }
+}
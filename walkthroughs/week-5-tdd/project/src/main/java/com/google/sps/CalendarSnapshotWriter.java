@@ -0,0 +1,174 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes calendars into the binary format that {@link CalendarSnapshot} maps into memory. This is
+ * meant to run offline, so that servers start from a ready-made snapshot instead of parsing events.
+ *
+ * <p>From the command line it converts a JSON array of events, in the same format that
+ * {@code /get-events} returns, into a snapshot:
+ *
+ * <pre>
+ *   java com.google.sps.CalendarSnapshotWriter events.json calendar.snapshot
+ * </pre>
+ */
+public final class CalendarSnapshotWriter {
+  private CalendarSnapshotWriter() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: CalendarSnapshotWriter <events.json> <snapshot file>");
+      System.exit(2);
+    }
+
+    try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      writeJson(reader, Paths.get(args[1]));
+    }
+  }
+
+  /**
+   * Writes a snapshot of a collection of events.
+   *
+   * @param events The events to write. Must be non-null.
+   * @param file Where to write the snapshot. An existing file is replaced.
+   */
+  public static void write(Collection<Event> events, Path file) throws IOException {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Map<String, IntervalSet> busyTimes = new HashMap<>();
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      for (String attendee : event.getAttendees()) {
+        busyTimes.computeIfAbsent(attendee, key -> new IntervalSet()).add(when.start(), when.end());
+      }
+    }
+    write(busyTimes, file);
+  }
+
+  /**
+   * Writes a snapshot of a JSON array of events. The events are read one at a time and only their
+   * times are kept, so no {@link Event} objects are built.
+   *
+   * @param json A JSON array of {@code {"title", "when": {"start", "duration"}, "attendees"}}.
+   * @param file Where to write the snapshot. An existing file is replaced.
+   */
+  public static void writeJson(Reader json, Path file) throws IOException {
+    Map<String, IntervalSet> busyTimes = new HashMap<>();
+    List<String> attendees = new ArrayList<>();
+    JsonReader reader = new JsonReader(json);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      int start = 0;
+      int duration = 0;
+      attendees.clear();
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String field = reader.nextName();
+        if (field.equals("when")) {
+          reader.beginObject();
+          while (reader.hasNext()) {
+            String whenField = reader.nextName();
+            if (whenField.equals("start")) {
+              start = reader.nextInt();
+            } else if (whenField.equals("duration")) {
+              duration = reader.nextInt();
+            } else {
+              reader.skipValue();
+            }
+          }
+          reader.endObject();
+        } else if (field.equals("attendees")) {
+          reader.beginArray();
+          while (reader.hasNext()) {
+            attendees.add(reader.nextString());
+          }
+          reader.endArray();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      for (String attendee : attendees) {
+        busyTimes.computeIfAbsent(attendee, key -> new IntervalSet())
+            .add(start, start + duration);
+      }
+    }
+    reader.endArray();
+    write(busyTimes, file);
+  }
+
+  private static void write(Map<String, IntervalSet> busyTimes, Path file) throws IOException {
+    List<String> names = new ArrayList<>(busyTimes.keySet());
+    List<IntervalSet> columns = new ArrayList<>(names.size());
+    int intervalCount = 0;
+    for (String name : names) {
+      IntervalSet times = busyTimes.get(name);
+      times.sort();
+      IntervalSet merged = times.merged();
+      columns.add(merged);
+      intervalCount += merged.size();
+    }
+
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(CalendarSnapshot.MAGIC);
+      out.writeInt(CalendarSnapshot.FORMAT_VERSION);
+      out.writeInt(names.size());
+      out.writeInt(intervalCount);
+
+      int offset = 0;
+      out.writeInt(offset);
+      for (IntervalSet column : columns) {
+        offset += column.size();
+        out.writeInt(offset);
+      }
+      for (IntervalSet column : columns) {
+        for (int i = 0; i < column.size(); i++) {
+          out.writeInt(column.start(i));
+        }
+      }
+      for (IntervalSet column : columns) {
+        for (int i = 0; i < column.size(); i++) {
+          out.writeInt(column.end(i));
+        }
+      }
+      for (String name : names) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Class representing a span of time that is not limited to one day. Times are whole minutes since
+ * the Unix epoch (1970-01-01T00:00Z), so ranges from different time zones can be compared directly
+ * and only need converting at the edges.
+ */
+public final class EpochTimeRange {
+  public static final long MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * A comparator for sorting ranges by their start time in ascending order.
+   */
+  public static final Comparator<EpochTimeRange> ORDER_BY_START =
+      new Comparator<EpochTimeRange>() {
+        @Override
+        public int compare(EpochTimeRange a, EpochTimeRange b) {
+          return Long.compare(a.start, b.start);
+        }
+      };
+
+  private final long start;
+  private final long duration;
+
+  private EpochTimeRange(long start, long duration) {
+    if (duration < 0) {
+      throw new IllegalArgumentException("duration cannot be negative");
+    }
+
+    this.start = start;
+    this.duration = duration;
+  }
+
+  /**
+   * Returns the start of the range in minutes since the epoch.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return duration;
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public long end() {
+    return start + duration;
+  }
+
+  /**
+   * Checks if two ranges overlap. This means that at least some part of one range falls within the
+   * bounds of another range.
+   */
+  public boolean overlaps(EpochTimeRange other) {
+    return this.contains(other.start) || other.contains(this.start);
+  }
+
+  /**
+   * Checks if a point in time falls within this range. The end of the range is not included.
+   */
+  public boolean contains(long point) {
+    return duration > 0 && point >= start && point < start + duration;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochTimeRange && equals(this, (EpochTimeRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(duration);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Range: [%s, %s)", Instant.ofEpochSecond(start * 60),
+        Instant.ofEpochSecond(end() * 60));
+  }
+
+  private static boolean equals(EpochTimeRange a, EpochTimeRange b) {
+    return a.start == b.start && a.duration == b.duration;
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} from {@code start} to {@code end}, both in minutes since the
+   * epoch. {@code end} is not included in the range.
+   */
+  public static EpochTimeRange fromStartEnd(long start, long end) {
+    return new EpochTimeRange(start, end - start);
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} starting at {@code start} minutes since the epoch with a
+   * duration equal to {@code duration} minutes.
+   */
+  public static EpochTimeRange fromStartDuration(long start, long duration) {
+    return new EpochTimeRange(start, duration);
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} between two instants, truncated to whole minutes.
+   */
+  public static EpochTimeRange fromInstants(Instant start, Instant end) {
+    return fromStartEnd(toMinutes(start), toMinutes(end));
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} for a single-day {@code TimeRange} on the given day, where
+   * {@code epochDay} counts days since the epoch in UTC. Ranges on days in other time zones can be
+   * placed with {@link #fromInstants} instead.
+   */
+  public static EpochTimeRange fromDay(long epochDay, TimeRange range) {
+    return fromStartDuration(epochDay * MINUTES_PER_DAY + range.start(), range.duration());
+  }
+
+  private static long toMinutes(Instant instant) {
+    return instant.truncatedTo(ChronoUnit.MINUTES).getEpochSecond() / 60;
+  }
+}
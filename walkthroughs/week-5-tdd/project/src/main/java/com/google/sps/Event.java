@@ -28,6 +28,9 @@ public final class Event {
   private final TimeRange when;
   private final Set<String> attendees = new HashSet<>();
 
+  // The attendees encoded with the default AttendeeDictionary. Transient so the JSON keeps names.
+  private final transient AttendeeSet attendeeIds;
+
   /**
    * Creates a new event.
    *
@@ -51,6 +54,7 @@ public final class Event {
     this.title = title;
     this.when = when;
     this.attendees.addAll(attendees);
+    this.attendeeIds = AttendeeSet.of(this.attendees, AttendeeDictionary.getDefault());
   }
 
   /**
@@ -76,6 +80,13 @@ public final class Event {
     return Collections.unmodifiableSet(attendees);
   }
 
+  /**
+   * Returns the IDs of the attendees in the default {@link AttendeeDictionary}.
+   */
+  AttendeeSet getAttendeeIds() {
+    return attendeeIds;
+  }
+
   @Override
   public int hashCode() {
     // For the hash code, just use the title. Most events "should" have different names and will
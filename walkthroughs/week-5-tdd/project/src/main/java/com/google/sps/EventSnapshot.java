@@ -0,0 +1,57 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * EventSnapshot is the state of an {@link EventStore} at one version: every event by its ID, and an
+ * {@link AttendeeIndex} over the same events. Snapshots never change once published, so a reader
+ * can use one for as long as it likes without locking and always sees a consistent calendar.
+ */
+public final class EventSnapshot {
+  private final long version;
+  private final Map<String, Event> events;
+  private final AttendeeIndex attendeeIndex;
+
+  EventSnapshot(long version, Map<String, Event> events, AttendeeIndex attendeeIndex) {
+    this.version = version;
+    this.events = Collections.unmodifiableMap(events);
+    this.attendeeIndex = attendeeIndex;
+  }
+
+  /**
+   * Returns the version of this snapshot. Every change to the store publishes a snapshot with a
+   * higher version, so anything computed from a snapshot can be cached under its version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a read-only map from event ID to event, in the order the events were created.
+   */
+  public Map<String, Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the index over this snapshot's events.
+   */
+  public AttendeeIndex getAttendeeIndex() {
+    return attendeeIndex;
+  }
+}
@@ -0,0 +1,166 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * EventStore holds the calendar's events and lets them be created, updated and deleted while
+ * queries are running. Every change copies the event map, builds the next {@link EventSnapshot}
+ * and publishes it through an atomic reference, so readers never lock and never see a change that
+ * is only half applied. Writers are serialized with each other.
+ */
+public final class EventStore {
+  private final AtomicReference<EventSnapshot> snapshot;
+
+  // Guarded by this.
+  private long nextId = 1;
+
+  /**
+   * Creates an empty store.
+   */
+  public EventStore() {
+    this(Collections.emptyList());
+  }
+
+  /**
+   * Creates a store that starts out with the given events, each under a new ID.
+   *
+   * @param events The initial events. Must be non-null.
+   */
+  public EventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty collection instead.");
+    }
+
+    Map<String, Event> initial = new LinkedHashMap<>();
+    for (Event event : events) {
+      initial.put(newId(), event);
+    }
+    snapshot = new AtomicReference<>(new EventSnapshot(1, initial, AttendeeIndex.of(events)));
+  }
+
+  /**
+   * Returns the latest published snapshot.
+   */
+  public EventSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Adds an event to the store.
+   *
+   * @param event The event to add. Must be non-null.
+   * @return the ID of the new event and the version of the store that first holds it
+   */
+  public synchronized Created create(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    EventSnapshot current = snapshot.get();
+    String id = newId();
+    Map<String, Event> events = new LinkedHashMap<>(current.getEvents());
+    events.put(id, event);
+    long version = publish(current, events, current.getAttendeeIndex().withChange(null, event));
+    return new Created(id, version);
+  }
+
+  /**
+   * Replaces the event with the given ID.
+   *
+   * @param id The ID of the event to replace.
+   * @param event The new event. Must be non-null.
+   * @return the version of the store with the event replaced, or -1 if there is no event with that
+   *     ID
+   */
+  public synchronized long update(String id, Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    EventSnapshot current = snapshot.get();
+    Event old = current.getEvents().get(id);
+    if (old == null) {
+      return -1;
+    }
+
+    Map<String, Event> events = new LinkedHashMap<>(current.getEvents());
+    events.put(id, event);
+    return publish(current, events, current.getAttendeeIndex().withChange(old, event));
+  }
+
+  /**
+   * Deletes the event with the given ID.
+   *
+   * @param id The ID of the event to delete.
+   * @return the version of the store without the event, or -1 if there is no event with that ID
+   */
+  public synchronized long delete(String id) {
+    EventSnapshot current = snapshot.get();
+    Event old = current.getEvents().get(id);
+    if (old == null) {
+      return -1;
+    }
+
+    Map<String, Event> events = new LinkedHashMap<>(current.getEvents());
+    events.remove(id);
+    return publish(current, events, current.getAttendeeIndex().withChange(old, null));
+  }
+
+  /**
+   * Publishes the next snapshot and returns its version.
+   */
+  private long publish(EventSnapshot current, Map<String, Event> events, AttendeeIndex index) {
+    long version = current.getVersion() + 1;
+    snapshot.set(new EventSnapshot(version, events, index));
+    return version;
+  }
+
+  private String newId() {
+    return Long.toString(nextId++);
+  }
+
+  /**
+   * The ID of a new event and the version of the store that first holds it.
+   */
+  public static final class Created {
+    private final String id;
+    private final long version;
+
+    private Created(String id, long version) {
+      this.id = id;
+      this.version = version;
+    }
+
+    /**
+     * Returns the ID of the new event.
+     */
+    public String getId() {
+      return id;
+    }
+
+    /**
+     * Returns the version of the store that first holds the event.
+     */
+    public long getVersion() {
+      return version;
+    }
+  }
+}
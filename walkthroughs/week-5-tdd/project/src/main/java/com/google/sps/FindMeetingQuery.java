@@ -14,18 +14,225 @@
 
 package com.google.sps;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class FindMeetingQuery {
+  /**
+   * The algorithms that {@code query} can use to turn blocked times into available times.
+   */
+  public enum Engine {
+    /**
+     * Rescans every blocked time for each candidate slot. Quadratic in the number of blocked
+     * times; kept exactly as the original implementation so that it stays the reference.
+     * That includes one answer the other engines correct: when the request has optional
+     * attendees but none of the people being considered have events, it finds no times
+     * rather than the whole day.
+     */
+    LEGACY,
+
+    /**
+     * Walks the blocked times once in start order, extending the current busy run or emitting the
+     * gap before it. The answers with and without optional attendees come out of the same walk.
+     * O(n log n) in the number of blocked times, dominated by the sort.
+     */
+    SWEEP_LINE,
+
+    /**
+     * Marks every busy minute of the day in a bitmap and scans it for clear runs. Combining
+     * attendees is a bitwise OR over 23 words, and an {@link AttendeeIndex} keeps each attendee's
+     * bitmap once it is first built, so the cost barely grows with the number of attendees.
+     * Events with no duration are kept as split points, so they divide the free time around them
+     * as in the other engines.
+     */
+    BITMAP
+  }
+
+  /**
+   * The parallel threshold used when none is given, which keeps the sweep line engine
+   * on the calling thread. The parallel scan has only been measured on a single core,
+   * where it never pays, so pick a threshold with ParallelCollectionBenchmark on the
+   * machine that runs the queries before turning it on
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.MAX_VALUE;
+
+  // Each parallel task scans at least this many events, so that tasks are worth forking.
+  private static final int MIN_EVENTS_PER_TASK = 4096;
+
+  private final Engine engine;
+
+  // Merged busy times of attendees read from an AttendeeIndex, or null to read the index directly.
+  private final FreeBusyCache freeBusyCache;
+
+  // Collections of at least this many events are scanned in parallel by the sweep line engine.
+  private final int parallelThreshold;
+
+  // Where the timings of sampled queries are recorded, or null to record nothing.
+  private final QueryMetrics metrics;
+
+  // When each attendee works, so that no gap is found outside it.
+  private final WorkingHours workingHours;
+
+  /**
+   * Creates a query that uses the {@link Engine#SWEEP_LINE} engine on the calling
+   * thread, with no cache, no metrics and no working hours. Use the {@code with}
+   * methods to change any of these
+   */
+  public FindMeetingQuery() {
+    this(
+      Engine.SWEEP_LINE,
+      null,
+      DEFAULT_PARALLEL_THRESHOLD,
+      null,
+      WorkingHours.NONE
+    );
+  }
+
+  private FindMeetingQuery(
+    Engine engine,
+    FreeBusyCache freeBusyCache,
+    int parallelThreshold,
+    QueryMetrics metrics,
+    WorkingHours workingHours
+  ) {
+    this.engine = engine;
+    this.freeBusyCache = freeBusyCache;
+    this.parallelThreshold = parallelThreshold;
+    this.metrics = metrics;
+    this.workingHours = workingHours;
+  }
+
+  /**
+   * Returns a copy of this query that uses the given engine
+   *
+   * @param engine the algorithm used to find the gaps between blocked times. Must be non-null.
+   * @return a query that uses the engine
+   */
+  public FindMeetingQuery withEngine(Engine engine) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine cannot be null");
+    }
+
+    return new FindMeetingQuery(
+      engine,
+      freeBusyCache,
+      parallelThreshold,
+      metrics,
+      workingHours
+    );
+  }
+
+  /**
+   * Returns a copy of this query that, when the sweep line engine is given a
+   * collection of at least parallelThreshold events, splits the scan for blocked
+   * times across the fork-join pool
+   *
+   * @param parallelThreshold the smallest number of events to scan in parallel. Use
+   *     {@code Integer.MAX_VALUE} to always scan on the calling thread.
+   * @return a query that scans large collections in parallel
+   */
+  public FindMeetingQuery withParallelThreshold(int parallelThreshold) {
+    if (parallelThreshold < 0) {
+      throw new IllegalArgumentException("parallelThreshold cannot be negative");
+    }
+
+    return new FindMeetingQuery(
+      engine,
+      freeBusyCache,
+      parallelThreshold,
+      metrics,
+      workingHours
+    );
+  }
+
+  /**
+   * Returns a copy of this query that, when reading an {@link AttendeeIndex}, takes
+   * each attendee's merged busy times from a cache
+   *
+   * @param freeBusyCache the cache of merged busy times, which may be shared. Must be non-null.
+   * @return a query that uses the cache
+   */
+  public FindMeetingQuery withFreeBusyCache(FreeBusyCache freeBusyCache) {
+    if (freeBusyCache == null) {
+      throw new IllegalArgumentException("freeBusyCache cannot be null");
+    }
+
+    return new FindMeetingQuery(
+      engine,
+      freeBusyCache,
+      parallelThreshold,
+      metrics,
+      workingHours
+    );
+  }
+
+  /**
+   * Returns a copy of this query that records the phases of sampled queries
+   *
+   * @param metrics where the timings and workload sizes of sampled queries are recorded,
+   *     which may be shared. Must be non-null.
+   * @return a query that records its samples in metrics
+   */
+  public FindMeetingQuery withMetrics(QueryMetrics metrics) {
+    if (metrics == null) {
+      throw new IllegalArgumentException("metrics cannot be null");
+    }
+
+    return new FindMeetingQuery(
+      engine,
+      freeBusyCache,
+      parallelThreshold,
+      metrics,
+      workingHours
+    );
+  }
+
+  /**
+   * Returns a copy of this query that treats the time outside each attendee's working
+   * hours as busy, whatever the engine and whatever the attendees' calendars are read
+   * from. Each attendee's hours are compiled once when they are added, so using them
+   * costs no more than a few extra busy times. Attendees without working hours are
+   * available all day
+   *
+   * @param workingHours when each attendee works. Must be non-null.
+   * @return a query that only finds times within working hours
+   */
+  public FindMeetingQuery withWorkingHours(WorkingHours workingHours) {
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null");
+    }
+
+    return new FindMeetingQuery(
+      engine,
+      freeBusyCache,
+      parallelThreshold,
+      metrics,
+      workingHours
+    );
+  }
 
   /**
    * Gets collection of TimeRange of available times for meeting given events of
    * attendees, and the request. First checks if it is possible to have meeting with
-   * all optional attendees, if not then check if possible with no optional
+   * all optional attendees, if not then check if possible with no optional. If there
+   * are no mandatory attendees there is nothing to fall back to, so only the times
+   * that work for every optional attendee are returned.
+   * If the request is maximizing optional attendees, the times that the largest
+   * weight of optional attendees can make are returned instead, whatever the engine
    *
    * @param events the events that the attendees have to visit
    * @param request the request that is made including the attendees visiting
@@ -35,31 +242,343 @@ public final class FindMeetingQuery {
     Collection<Event> events,
     MeetingRequest request
   ) {
+    QueryMetrics.Sample sample = startSample();
+    Collection<TimeRange> answer = query(withOffHours(events, request), request, sample);
+    sample.finish();
+    return answer;
+  }
+
+  /**
+   * Gets the available times like {@link #query(Collection, MeetingRequest)}, recording
+   * each phase in the sample
+   */
+  private Collection<TimeRange> query(
+    Collection<Event> events,
+    MeetingRequest request,
+    QueryMetrics.Sample sample
+  ) {
+    if (request.isMaximizingOptionalAttendees()) {
+      return getMaximizedQuery(events, request);
+    }
+    sample.recordSize(QueryMetrics.Size.EVENTS_SCANNED, events.size());
+    if (engine == Engine.SWEEP_LINE) {
+      return getSweepLineQuery(
+        getTaggedBlockedTimes(events, request, sample),
+        request,
+        sample
+      );
+    }
+    if (engine == Engine.BITMAP) {
+      BusyBitmaps busyBitmaps = getBusyBitmaps(events, request);
+      sample.endPhase(QueryMetrics.Phase.COLLECT);
+      Collection<TimeRange> answer = getBitmapQuery(busyBitmaps, request);
+      sample.endPhase(QueryMetrics.Phase.GAPS);
+      return answer;
+    }
+
     // firstAttempt is using the query to find a collection of timeranges including all optional attendees
-    Collection<TimeRange> firstAttempt = getQuery(events, request, true);
+    List<TimeRange> blockedTimes = getBlockedTimes(events, request, true);
+    sample.endPhase(QueryMetrics.Phase.COLLECT);
+    Collection<TimeRange> firstAttempt = getQuery(blockedTimes, request);
+    sample.endPhase(QueryMetrics.Phase.GAPS);
 
     if (firstAttempt.size() != 0) {
       return firstAttempt;
     } else {
       // if it was not possible to get a collection of timeranges including all
       // optional attendees then try to get timerange without optional attendees
-      return getQuery(events, request, false);
+      Collection<TimeRange> fallback =
+        getQuery(getBlockedTimes(events, request, false), request);
+      sample.endPhase(QueryMetrics.Phase.FALLBACK);
+      return fallback;
     }
   }
 
   /**
-   * Gets collection of TimeRange of available times for meeting given events of
-   * attendees, the request, and if optional attendees should be considered
+   * Gets collection of TimeRange of available times for meeting given an index of
+   * the attendees' busy times, and the request. Only the calendars of the people in
+   * the request are read, otherwise this behaves exactly like
+   * {@link #query(Collection, MeetingRequest)}
    *
-   * @param events the events that the attendees have to visit
+   * @param index the busy times of every attendee
    * @param request the request that is made including the attendees visiting
-   * @param considerOptional whether or not optional attendees are considered
    * @return Collection of TimeRanges that are available for attendees
    */
-  private Collection<TimeRange> getQuery(
-    Collection<Event> events,
+  public Collection<TimeRange> query(
+    AttendeeIndex index,
+    MeetingRequest request
+  ) {
+    QueryMetrics.Sample sample = startSample();
+    Collection<TimeRange> answer = query(index, request, sample);
+    sample.finish();
+    return answer;
+  }
+
+  /**
+   * Gets the available times like {@link #query(AttendeeIndex, MeetingRequest)},
+   * recording each phase in the sample
+   */
+  private Collection<TimeRange> query(
+    AttendeeIndex index,
     MeetingRequest request,
-    boolean considerOptional
+    QueryMetrics.Sample sample
+  ) {
+    if (request.isMaximizingOptionalAttendees()) {
+      return getMaximizedQuery(index, request);
+    }
+    if (engine == Engine.SWEEP_LINE) {
+      return getSweepLineQuery(
+        getTaggedBlockedTimes(index, request, sample),
+        request,
+        sample
+      );
+    }
+    if (engine == Engine.BITMAP) {
+      BusyBitmaps busyBitmaps = getBusyBitmaps(index, request);
+      sample.endPhase(QueryMetrics.Phase.COLLECT);
+      Collection<TimeRange> answer = getBitmapQuery(busyBitmaps, request);
+      sample.endPhase(QueryMetrics.Phase.GAPS);
+      return answer;
+    }
+
+    List<TimeRange> blockedTimes = getBlockedTimes(index, request, true);
+    sample.recordSize(QueryMetrics.Size.EVENTS_SCANNED, blockedTimes.size());
+    sample.endPhase(QueryMetrics.Phase.COLLECT);
+    Collection<TimeRange> firstAttempt = getQuery(blockedTimes, request);
+    sample.endPhase(QueryMetrics.Phase.GAPS);
+
+    if (firstAttempt.size() != 0) {
+      return firstAttempt;
+    } else {
+      Collection<TimeRange> fallback =
+        getQuery(getBlockedTimes(index, request, false), request);
+      sample.endPhase(QueryMetrics.Phase.FALLBACK);
+      return fallback;
+    }
+  }
+
+  /**
+   * Gets collection of TimeRange of available times for meeting given a memory-mapped
+   * calendar snapshot, and the request. Only the busy times of the people in the
+   * request are read from the snapshot, otherwise this behaves exactly like
+   * {@link #query(AttendeeIndex, MeetingRequest)}
+   *
+   * @param snapshot the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  public Collection<TimeRange> query(
+    CalendarSnapshot snapshot,
+    MeetingRequest request
+  ) {
+    List<String> everyone = new ArrayList<String>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    return query(snapshot.getAttendeeIndex(everyone), request);
+  }
+
+  /**
+   * Gets collection of TimeRange of available times for meeting on one day given
+   * events of attendees, recurring events, and the request. Each recurring event is
+   * only expanded into the occurrences on that day, so the work depends on how many
+   * occurrences fall on the day and not on how long the series are. Otherwise this
+   * behaves exactly like {@link #query(Collection, MeetingRequest)}
+   *
+   * @param events the events on the day that the attendees have to visit
+   * @param recurringEvents the recurring events that the attendees have to visit
+   * @param epochDay the day to search, as days since the epoch in UTC
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  public Collection<TimeRange> query(
+    Collection<Event> events,
+    Collection<RecurringEvent> recurringEvents,
+    long epochDay,
+    MeetingRequest request
+  ) {
+    List<Event> dayEvents = new ArrayList<Event>(events);
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      if (isAttending(recurringEvent, request)) {
+        dayEvents.addAll(recurringEvent.getEventsOn(epochDay));
+      }
+    }
+    return query(dayEvents, request);
+  }
+
+  /**
+   * Gets the times the attendees and one resource of each of the request's resource
+   * pools are free, given events of attendees and resources, and the request. The
+   * attendees' times are the ones {@link #query(Collection, MeetingRequest)} finds,
+   * split wherever a different resource has to be assigned. A resource is busy
+   * during every event that lists it as an attendee. Times that lie inside a longer
+   * time are left out, since the longer one can hold any meeting the shorter one can
+   *
+   * @param events the events that the attendees and resources have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return the slots that are available, sorted by start time
+   */
+  public List<ResourceSlot> queryWithResources(
+    Collection<Event> events,
+    MeetingRequest request
+  ) {
+    Map<String, IntervalSet> resourceBusyTimes = new HashMap<String, IntervalSet>();
+    for (List<String> pool : request.getResourcePools()) {
+      for (String resource : pool) {
+        resourceBusyTimes.put(resource, new IntervalSet());
+      }
+    }
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        IntervalSet busyTimes = resourceBusyTimes.get(attendee);
+        if (busyTimes != null) {
+          busyTimes.add(event.getWhen().start(), event.getWhen().end());
+        }
+      }
+    }
+    for (IntervalSet busyTimes : resourceBusyTimes.values()) {
+      busyTimes.sort();
+    }
+
+    return assignResources(
+      query(events, request),
+      request,
+      resource -> withOffHours(resource, resourceBusyTimes.get(resource))
+    );
+  }
+
+  /**
+   * Gets the times the attendees and one resource of each of the request's resource
+   * pools are free, given an index of the attendees' and resources' busy times, and
+   * the request. Otherwise this behaves exactly like
+   * {@link #queryWithResources(Collection, MeetingRequest)}
+   *
+   * @param index the busy times of every attendee and resource
+   * @param request the request that is made including the attendees visiting
+   * @return the slots that are available, sorted by start time
+   */
+  public List<ResourceSlot> queryWithResources(
+    AttendeeIndex index,
+    MeetingRequest request
+  ) {
+    return assignResources(
+      query(index, request),
+      request,
+      resource -> getBusyTimes(index, resource)
+    );
+  }
+
+  /**
+   * Gets the available times for meeting given an index of the attendees' busy times,
+   * and the request, in chronological order and only as they are asked for. The
+   * times are the same as {@link #query(AttendeeIndex, MeetingRequest)} finds with
+   * {@link Engine#SWEEP_LINE}, whatever the engine, but the search stops as soon as
+   * the caller does, so taking the first few times only reads the busy times before
+   * them. Requests that maximize optional attendees are answered in full up front
+   *
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return Iterator over the TimeRanges that are available for attendees
+   */
+  public Iterator<TimeRange> iterator(
+    AttendeeIndex index,
+    MeetingRequest request
+  ) {
+    if (request.isMaximizingOptionalAttendees()) {
+      return getMaximizedQuery(index, request).iterator();
+    }
+
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer.iterator();
+    }
+
+    List<IntervalSet> mandatoryTimes = new ArrayList<IntervalSet>();
+    for (String attendee : request.getAttendees()) {
+      mandatoryTimes.add(getBusyTimes(index, attendee));
+    }
+    List<IntervalSet> allTimes = new ArrayList<IntervalSet>(mandatoryTimes);
+    for (String attendee : request.getOptionalAttendees()) {
+      allTimes.add(getBusyTimes(index, attendee));
+    }
+
+    // only the first time with optional attendees has to be found to know whether
+    // to fall back to the mandatory attendees alone
+    Iterator<TimeRange> withOptional =
+      new FreeTimeIterator(allTimes, request.getDuration());
+    if (withOptional.hasNext() || request.getAttendees().size() == 0) {
+      return withOptional;
+    }
+    return new FreeTimeIterator(mandatoryTimes, request.getDuration());
+  }
+
+  /**
+   * Gets a lazy stream of the available times for meeting, as described in
+   * {@link #iterator(AttendeeIndex, MeetingRequest)}. Use {@code limit} to stop the
+   * search after the first few times
+   *
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return ordered Stream of the TimeRanges that are available for attendees
+   */
+  public Stream<TimeRange> stream(AttendeeIndex index, MeetingRequest request) {
+    return StreamSupport.stream(
+      Spliterators.spliteratorUnknownSize(
+        iterator(index, request),
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL
+      ),
+      false
+    );
+  }
+
+  /**
+   * Gets collection of TimeRange of available times for meeting given an index that
+   * counts the attendees' events per minute, and the request. The index finds the
+   * free times itself, so the engine is not used
+   *
+   * @param index the per-minute event counts of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  public Collection<TimeRange> query(
+    AvailabilityIndex index,
+    MeetingRequest request
+  ) {
+    if (request.isMaximizingOptionalAttendees()) {
+      return getMaximizedQuery(index, request);
+    }
+
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+
+    List<String> everyone = new ArrayList<String>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    IntervalSet withOptional = duringWorkingHours(
+      index.getFreeTimes(everyone, request.getDuration()),
+      everyone,
+      request.getDuration()
+    );
+    if (withOptional.size() != 0 || request.getAttendees().size() == 0) {
+      return withOptional.toTimeRanges();
+    }
+    return duringWorkingHours(
+      index.getFreeTimes(request.getAttendees(), request.getDuration()),
+      request.getAttendees(),
+      request.getDuration()
+    ).toTimeRanges();
+  }
+
+  /**
+   * Gets collection of TimeRange of available times for meeting given the times
+   * blocked by the attendees that are being considered, and the request
+   *
+   * @param blockedTimes the times the considered attendees are busy, sorted by start time
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  private Collection<TimeRange> getQuery(
+    List<TimeRange> blockedTimes,
+    MeetingRequest request
   ) {
     // if no one is attending then meeting can happening whenever
     if (
@@ -74,12 +593,6 @@ public final class FindMeetingQuery {
       return Arrays.asList();
     }
 
-    Collection<TimeRange> blockedTimes = new ArrayList<TimeRange>();
-    Collection<TimeRange> returnTimeRange = new ArrayList<TimeRange>();
-    TimeRange meetingTime = TimeRange.fromStartEnd(0, 0, false);
-
-    blockedTimes = getBlockedTimes(events, request, considerOptional);
-
     // if there are no other events at this point the meeting can happen whenever in the day
     if (
       blockedTimes.size() == 0 && request.getOptionalAttendees().size() == 0
@@ -87,6 +600,9 @@ public final class FindMeetingQuery {
       return Arrays.asList(TimeRange.WHOLE_DAY);
     }
 
+    Collection<TimeRange> returnTimeRange = new ArrayList<TimeRange>();
+    TimeRange meetingTime = TimeRange.fromStartEnd(0, 0, false);
+
     int startTime = 0;
     int endTime = 0;
 
@@ -141,22 +657,22 @@ public final class FindMeetingQuery {
    * @param considerOptional whether or not optional attendees are considered
    * @return Collection of TimeRanges that are blocked for attendees
    */
-  private Collection<TimeRange> getBlockedTimes(
+  private List<TimeRange> getBlockedTimes(
     Collection<Event> events,
     MeetingRequest request,
     boolean considerOptional
   ) {
     List<TimeRange> blockedTimes = new ArrayList<TimeRange>();
+    AttendeeSet attendees = request.getAttendeeIds();
+    AttendeeSet optionalAttendees = request.getOptionalAttendeeIds();
     for (Event event : events) {
-      for (String eventAttendee : event.getAttendees()) {
-        boolean isRequestAttendee = request
-          .getAttendees()
-          .contains(eventAttendee);
+      AttendeeSet eventAttendees = event.getAttendeeIds();
+      for (int i = 0; i < eventAttendees.size(); i++) {
+        boolean isRequestAttendee = attendees.contains(eventAttendees.get(i));
 
         // if we need to consider optional attendees then we need to also block off their events
         boolean isOptionalAttendee =
-          considerOptional &&
-          request.getOptionalAttendees().contains(eventAttendee);
+          considerOptional && optionalAttendees.contains(eventAttendees.get(i));
 
         if (isRequestAttendee || isOptionalAttendee) {
           TimeRange block = event.getWhen();
@@ -170,67 +686,932 @@ public final class FindMeetingQuery {
   }
 
   /**
-   * Given a start time of a possible returnTimeRange finds the next closest end
-   * time using blockedTimes
+   * Gets collection of TimeRange of blocked of times given an index of the attendees'
+   * busy times, the request, and if optional attendees should be considered
    *
-   * @param blockedTimes the time slots that can not be used in returnTimeRange
-   * @param startTime the start time of a slot in returnTimeRange
-   * @return endTime given startTime, returns 24 * 60(the end of the day) if no
-   *         endTIme could be found through blockedTImes
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @param considerOptional whether or not optional attendees are considered
+   * @return Collection of TimeRanges that are blocked for attendees
    */
-  private Integer getEndTime(
-    Collection<TimeRange> blockedTimes,
-    int startTime
+  private List<TimeRange> getBlockedTimes(
+    AttendeeIndex index,
+    MeetingRequest request,
+    boolean considerOptional
   ) {
-    int possibleEndTime = 0;
-    for (TimeRange start : blockedTimes) {
-      possibleEndTime = start.start();
+    List<TimeRange> blockedTimes = new ArrayList<TimeRange>();
+    for (String attendee : request.getAttendees()) {
+      blockedTimes.addAll(getBusyTimes(index, attendee).toTimeRanges());
+    }
 
-      if (possibleEndTime > startTime) {
-        return possibleEndTime;
+    if (considerOptional) {
+      for (String attendee : request.getOptionalAttendees()) {
+        blockedTimes.addAll(getBusyTimes(index, attendee).toTimeRanges());
       }
     }
-    // can only get here if no possibleEndTime was found
-    return 24 * 60;
+    // each attendee's times are already sorted, so this only has to merge the runs together
+    Collections.sort(blockedTimes, TimeRange.ORDER_BY_START);
+    return blockedTimes;
   }
 
   /**
-   * Given a start time of a possible returnTimeRange returns whether or not it
-   * inbetween a blocked time range using blockedTimes
+   * Gets the blocked times of the request's attendees given events, tagged by whether
+   * they come from a mandatory attendee. An event that has both a mandatory and an
+   * optional attendee only needs to be tagged mandatory, since it blocks both answers
    *
-   * @param blockedTimes the time slots that can not be used in returnTimeRange
-   * @param startTime the start time of a slot in returnTimeRange
-   * @return true if start time is inbetween a blocked time false if not
+   * @param events the events that the attendees have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return the blocked times, each set sorted by start time
    */
-  private boolean getIsInbetween(
-    Collection<TimeRange> blockedTimes,
-    int startTime
+  private TaggedTimes getTaggedBlockedTimes(
+    Collection<Event> events,
+    MeetingRequest request,
+    QueryMetrics.Sample sample
   ) {
-    for (TimeRange block : blockedTimes) {
-      if (startTime < block.end() && startTime >= block.start()) {
-        return true;
-      }
+    if (events.size() >= parallelThreshold) {
+      // each chunk sorts its own times, so the sort is part of collecting them
+      TaggedTimes blockedTimes = getParallelTaggedBlockedTimes(events, request);
+      sample.endPhase(QueryMetrics.Phase.COLLECT);
+      return blockedTimes;
     }
-    return false;
+
+    AttendeeSet attendees = request.getAttendeeIds();
+    AttendeeSet optionalAttendees = request.getOptionalAttendeeIds();
+    TaggedTimes blockedTimes = new TaggedTimes();
+    for (Event event : events) {
+      blockedTimes.add(event, attendees, optionalAttendees);
+    }
+    sample.endPhase(QueryMetrics.Phase.COLLECT);
+    blockedTimes.sort();
+    sample.endPhase(QueryMetrics.Phase.SORT);
+    return blockedTimes;
   }
 
   /**
-   * Given a start time of a possible returnTimeRange returns whether or not it
-   * inbetween a blocked time range using blockedTimes
+   * Starts measuring a query if it is sampled, otherwise returns a sample that records
+   * nothing
+   */
+  private QueryMetrics.Sample startSample() {
+    return metrics == null ? QueryMetrics.Sample.NONE : metrics.startSample();
+  }
+
+  /**
+   * Gets the same blocked times as {@link #getTaggedBlockedTimes(Collection,
+   * MeetingRequest, QueryMetrics.Sample)} by splitting the events into chunks on the
+   * fork-join pool. Each chunk is scanned and sorted on its own, and the sorted runs
+   * are then combined with a k-way heap merge rather than sorting everything again
    *
-   * @param meetingTime a possible TimeRange that could be added to returnTimeRange
-   * @param returnTimeRange the return TimeRange of all possible meeting times
-   * @return true if any time of meetingTime is already included in returnTimeRange
+   * @param events the events that the attendees have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return the blocked times, each set sorted by start time
    */
-  private boolean getAlreadyHaveTimeRange(
-    TimeRange meetingTime,
-    Collection<TimeRange> returnTimeRange
+  private static TaggedTimes getParallelTaggedBlockedTimes(
+    Collection<Event> events,
+    MeetingRequest request
   ) {
-    for (TimeRange alreadyHave : returnTimeRange) {
-      if (meetingTime.contains(alreadyHave)) {
-        return true;
+    Event[] eventArray = events.toArray(new Event[0]);
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    int chunks = Math.max(
+      1,
+      Math.min(eventArray.length / MIN_EVENTS_PER_TASK, 4 * parallelism)
+    );
+
+    TaggedTimes[] runs = new TaggedTimes[chunks];
+    new CollectTask(
+      eventArray,
+      request.getAttendeeIds(),
+      request.getOptionalAttendeeIds(),
+      runs,
+      0,
+      chunks
+    ).invoke();
+
+    List<IntervalSet> mandatoryRuns = new ArrayList<IntervalSet>(chunks);
+    List<IntervalSet> optionalRuns = new ArrayList<IntervalSet>(chunks);
+    for (TaggedTimes run : runs) {
+      mandatoryRuns.add(run.mandatory);
+      optionalRuns.add(run.optional);
+    }
+    return new TaggedTimes(
+      IntervalSet.mergeSorted(mandatoryRuns),
+      IntervalSet.mergeSorted(optionalRuns)
+    );
+  }
+
+  /**
+   * Gets the blocked times of the request's attendees given an index of their busy
+   * times, tagged by whether they come from a mandatory attendee
+   *
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return the blocked times, each set sorted by start time
+   */
+  private TaggedTimes getTaggedBlockedTimes(
+    AttendeeIndex index,
+    MeetingRequest request,
+    QueryMetrics.Sample sample
+  ) {
+    TaggedTimes blockedTimes = new TaggedTimes();
+    for (String attendee : request.getAttendees()) {
+      blockedTimes.mandatory.addAll(getBusyTimes(index, attendee));
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      blockedTimes.optional.addAll(getBusyTimes(index, attendee));
+    }
+    sample.recordSize(
+      QueryMetrics.Size.EVENTS_SCANNED,
+      blockedTimes.mandatory.size() + blockedTimes.optional.size()
+    );
+    sample.endPhase(QueryMetrics.Phase.COLLECT);
+    blockedTimes.sort();
+    sample.endPhase(QueryMetrics.Phase.SORT);
+    return blockedTimes;
+  }
+
+  /**
+   * Checks whether anyone in the request attends the recurring event, so that series
+   * nobody in the request attends are not expanded at all
+   *
+   * @param recurringEvent the recurring event that may have to be visited
+   * @param request the request that is made including the attendees visiting
+   * @return true if a mandatory or optional attendee attends the event
+   */
+  private static boolean isAttending(
+    RecurringEvent recurringEvent,
+    MeetingRequest request
+  ) {
+    for (String attendee : recurringEvent.getAttendees()) {
+      if (
+        request.getAttendees().contains(attendee) ||
+        request.getOptionalAttendees().contains(attendee)
+      ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Narrows the attendees' free times down to the parts where a resource of each of
+   * the request's pools is free, one pool at a time, using an index of each pool's
+   * free times
+   *
+   * @param freeTimes the times the attendees are free, sorted by start time
+   * @param request the request that is made including the resource pools
+   * @param busyTimes gets the busy times of a resource, sorted by start time
+   * @return the slots that are available, sorted by start time
+   */
+  private static List<ResourceSlot> assignResources(
+    Collection<TimeRange> freeTimes,
+    MeetingRequest request,
+    Function<String, IntervalSet> busyTimes
+  ) {
+    List<ResourceSlot> slots = new ArrayList<ResourceSlot>(freeTimes.size());
+    for (TimeRange time : freeTimes) {
+      slots.add(new ResourceSlot(time, Collections.<String>emptyList()));
+    }
+
+    for (List<String> pool : request.getResourcePools()) {
+      List<IntervalSet> poolBusyTimes = new ArrayList<IntervalSet>(pool.size());
+      for (String resource : pool) {
+        poolBusyTimes.add(busyTimes.apply(resource));
+      }
+      slots = ResourcePoolIndex
+        .of(pool, poolBusyTimes, request.getDuration())
+        .assign(slots);
+    }
+    return slots;
+  }
+
+  /**
+   * Gets the busy times of one attendee from an index, sorted by start time. With a
+   * cache the overlapping times are already merged, which leaves less to sort
+   *
+   * @param index the busy times of every attendee
+   * @param attendee the person whose busy times are needed
+   * @return the busy times, which must not be modified
+   */
+  private IntervalSet getBusyTimes(AttendeeIndex index, String attendee) {
+    if (freeBusyCache != null) {
+      return withOffHours(attendee, freeBusyCache.getMergedBusyTimes(index, attendee));
+    }
+    return withOffHours(attendee, index.getBusyIntervals(attendee));
+  }
+
+  /**
+   * Whether an attendee is free and working for the whole of a time, given an index
+   * that counts their events per minute
+   *
+   * @param index the per-minute event counts of every attendee
+   * @param attendee the person being checked
+   * @param when the time the person would be busy
+   * @return true if the person has no events during when and works all of it
+   */
+  boolean isFree(AvailabilityIndex index, String attendee, TimeRange when) {
+    IntervalSet busyTimes = withOffHours(attendee, index.getBusyTimes(attendee));
+    for (int i = 0; i < busyTimes.size() && busyTimes.start(i) < when.end(); i++) {
+      if (busyTimes.end(i) > when.start()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the times an attendee does not work to their busy times
+   *
+   * @param attendee the person whose busy times these are
+   * @param busyTimes the times the person is busy, sorted by start time
+   * @return the busy times and the times outside working hours, sorted by start
+   *         time, which must not be modified
+   */
+  private IntervalSet withOffHours(String attendee, IntervalSet busyTimes) {
+    IntervalSet offHours = workingHours.getOffHours(attendee);
+    return offHours.isEmpty() ? busyTimes : busyTimes.union(offHours);
+  }
+
+  /**
+   * Adds an event for each time an attendee of the request does not work to the
+   * events, without copying them
+   *
+   * @param events the events that the attendees have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return the events followed by the times outside working hours
+   */
+  private Collection<Event> withOffHours(
+    Collection<Event> events,
+    MeetingRequest request
+  ) {
+    if (workingHours.isEmpty()) {
+      return events;
+    }
+
+    List<Event> offHours = new ArrayList<Event>();
+    for (String attendee : request.getAttendees()) {
+      offHours.addAll(workingHours.getOffHoursEvents(attendee));
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      offHours.addAll(workingHours.getOffHoursEvents(attendee));
+    }
+    if (offHours.isEmpty()) {
+      return events;
+    }
+    return new ConcatenatedEvents(events, offHours);
+  }
+
+  /**
+   * Keeps the parts of free times that are within every attendee's working hours
+   * and still fit the meeting
+   *
+   * @param freeTimes the times the attendees are free, merged and sorted
+   * @param attendees the people whose working hours apply
+   * @param duration the length of the requested meeting in minutes
+   * @return the free times within working hours
+   */
+  private IntervalSet duringWorkingHours(
+    IntervalSet freeTimes,
+    Collection<String> attendees,
+    long duration
+  ) {
+    IntervalSet workingFreeTimes = freeTimes;
+    for (String attendee : attendees) {
+      IntervalSet workingTimes = workingHours.getWorkingTimes(attendee);
+      if (workingTimes != null) {
+        workingFreeTimes = workingFreeTimes.intersection(workingTimes);
+      }
+    }
+    if (workingFreeTimes == freeTimes) {
+      return freeTimes;
+    }
+
+    IntervalSet longEnough = new IntervalSet(workingFreeTimes.size());
+    for (int i = 0; i < workingFreeTimes.size(); i++) {
+      longEnough.addIfLongEnough(
+        workingFreeTimes.start(i),
+        workingFreeTimes.end(i),
+        duration
+      );
+    }
+    return longEnough;
+  }
+
+  /**
+   * Gets the busy minutes of the request's attendees given events, both for the
+   * mandatory attendees alone and for everyone
+   *
+   * @param events the events that the attendees have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return the busy minutes of the attendees
+   */
+  private BusyBitmaps getBusyBitmaps(
+    Collection<Event> events,
+    MeetingRequest request
+  ) {
+    AttendeeSet attendees = request.getAttendeeIds();
+    AttendeeSet optionalAttendees = request.getOptionalAttendeeIds();
+    MinuteBitmap mandatory = new MinuteBitmap();
+    MinuteBitmap optional = new MinuteBitmap();
+    for (Event event : events) {
+      if (isAttending(event, attendees)) {
+        mandatory.mark(event.getWhen());
+      } else if (isAttending(event, optionalAttendees)) {
+        optional.mark(event.getWhen());
+      }
+    }
+
+    MinuteBitmap all = mandatory.copy();
+    all.or(optional);
+    return new BusyBitmaps(mandatory, all);
+  }
+
+  /**
+   * Gets the busy minutes of the request's attendees by combining their bitmaps
+   * from an index, both for the mandatory attendees alone and for everyone
+   *
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return the busy minutes of the attendees
+   */
+  private BusyBitmaps getBusyBitmaps(
+    AttendeeIndex index,
+    MeetingRequest request
+  ) {
+    MinuteBitmap mandatory = new MinuteBitmap();
+    for (String attendee : request.getAttendees()) {
+      orBusyBitmap(mandatory, index, attendee);
+    }
+
+    MinuteBitmap all = mandatory.copy();
+    for (String attendee : request.getOptionalAttendees()) {
+      orBusyBitmap(all, index, attendee);
+    }
+    return new BusyBitmaps(mandatory, all);
+  }
+
+  /**
+   * Marks the minutes an attendee is busy or does not work in a bitmap
+   *
+   * @param busy the bitmap being marked
+   * @param index the busy times of every attendee
+   * @param attendee the person whose busy minutes are marked
+   */
+  private void orBusyBitmap(MinuteBitmap busy, AttendeeIndex index, String attendee) {
+    busy.or(index.getBusyBitmap(attendee));
+    MinuteBitmap offHours = workingHours.getOffHoursBitmap(attendee);
+    if (offHours != null) {
+      busy.or(offHours);
+    }
+  }
+
+  /**
+   * Whether any of the given people attend the event. Both sides are encoded as
+   * attendee IDs, so this compares ints rather than hashing names
+   *
+   * @param event the event that may block the attendees
+   * @param attendees the IDs of the people being checked
+   * @return true if at least one of attendees attends event
+   */
+  private static boolean isAttending(Event event, AttendeeSet attendees) {
+    return attendees.intersects(event.getAttendeeIds());
+  }
+
+  /**
+   * Gets collection of TimeRange of available times by scanning bitmaps of the
+   * busy minutes for clear runs that are long enough for the meeting
+   *
+   * @param busyBitmaps the busy minutes of the attendees
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  private Collection<TimeRange> getBitmapQuery(
+    BusyBitmaps busyBitmaps,
+    MeetingRequest request
+  ) {
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+
+    IntervalSet withOptional = new IntervalSet();
+    busyBitmaps.all.addFreeTimes(withOptional, request.getDuration());
+    if (withOptional.size() != 0 || request.getAttendees().size() == 0) {
+      return withOptional.toTimeRanges();
+    }
+
+    IntervalSet withoutOptional = new IntervalSet();
+    busyBitmaps.mandatory.addFreeTimes(withoutOptional, request.getDuration());
+    return withoutOptional.toTimeRanges();
+  }
+
+  /**
+   * Gets collection of TimeRange of available times with a single sweep over the
+   * tagged blocked times. The mandatory and optional times are merged by start time
+   * and every block moves two start times along at once: one that every block
+   * pushes later, which gives the answer with the optional attendees, and one that
+   * only mandatory blocks push later, which gives the fallback without them. This
+   * answers both halves of {@link #query(Collection, MeetingRequest)} from one scan.
+   * The whole sweep works on primitive start and end times, and TimeRanges are only
+   * made for the answer that is returned
+   *
+   * @param blockedTimes the tagged times the attendees are busy
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available for attendees
+   */
+  private Collection<TimeRange> getSweepLineQuery(
+    TaggedTimes blockedTimes,
+    MeetingRequest request,
+    QueryMetrics.Sample sample
+  ) {
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+    long duration = request.getDuration();
+
+    IntervalSet withOptional = new IntervalSet();
+    IntervalSet withoutOptional = new IntervalSet();
+    int endOfDay = TimeRange.WHOLE_DAY.end();
+    int allStartTime = TimeRange.START_OF_DAY;
+    int mandatoryStartTime = TimeRange.START_OF_DAY;
+
+    IntervalSet mandatory = blockedTimes.mandatory;
+    IntervalSet optional = blockedTimes.optional;
+    sample.recordSize(
+      QueryMetrics.Size.BLOCKED_INTERVALS,
+      mandatory.size() + optional.size()
+    );
+    int nextMandatory = 0;
+    int nextOptional = 0;
+    while (
+      nextMandatory < mandatory.size() || nextOptional < optional.size()
+    ) {
+      // allStartTime is never earlier than mandatoryStartTime, so once the mandatory
+      // sweep has run past midnight neither can find another gap
+      if (mandatoryStartTime >= endOfDay) {
+        break;
+      }
+
+      boolean isMandatory =
+        nextOptional == optional.size() ||
+        (
+          nextMandatory < mandatory.size() &&
+          mandatory.start(nextMandatory) <= optional.start(nextOptional)
+        );
+      IntervalSet blocks = isMandatory ? mandatory : optional;
+      int next = isMandatory ? nextMandatory++ : nextOptional++;
+      int blockStart = blocks.start(next);
+      int blockEnd = blocks.end(next);
+
+      allStartTime =
+        sweep(withOptional, allStartTime, blockStart, blockEnd, duration);
+      if (isMandatory) {
+        mandatoryStartTime = sweep(
+          withoutOptional,
+          mandatoryStartTime,
+          blockStart,
+          blockEnd,
+          duration
+        );
+      }
+    }
+
+    if (allStartTime < endOfDay) {
+      withOptional.addIfLongEnough(allStartTime, endOfDay, duration);
+    }
+    if (withOptional.size() != 0 || request.getAttendees().size() == 0) {
+      sample.recordSize(QueryMetrics.Size.CANDIDATE_GAPS, withOptional.size());
+      List<TimeRange> answer = withOptional.toTimeRanges();
+      sample.endPhase(QueryMetrics.Phase.GAPS);
+      return answer;
+    }
+    sample.endPhase(QueryMetrics.Phase.GAPS);
+
+    // the mandatory gaps were found in the same sweep, so falling back only has to
+    // close the last one
+    if (mandatoryStartTime < endOfDay) {
+      withoutOptional.addIfLongEnough(mandatoryStartTime, endOfDay, duration);
+    }
+    sample.recordSize(QueryMetrics.Size.CANDIDATE_GAPS, withoutOptional.size());
+    List<TimeRange> answer = withoutOptional.toTimeRanges();
+    sample.endPhase(QueryMetrics.Phase.FALLBACK);
+    return answer;
+  }
+
+  /**
+   * Gets collection of TimeRange of the times the largest weight of optional
+   * attendees can make given events of attendees, and the request
+   *
+   * @param events the events that the attendees have to visit
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are best for attendees
+   */
+  private Collection<TimeRange> getMaximizedQuery(
+    Collection<Event> events,
+    MeetingRequest request
+  ) {
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+
+    // each optional attendee's busy times, at their position in the sorted IDs
+    AttendeeSet attendees = request.getAttendeeIds();
+    AttendeeSet optionalAttendees = request.getOptionalAttendeeIds();
+    IntervalSet mandatoryTimes = new IntervalSet();
+    IntervalSet[] optionalTimes = new IntervalSet[optionalAttendees.size()];
+    for (int i = 0; i < optionalTimes.length; i++) {
+      optionalTimes[i] = new IntervalSet();
+    }
+
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (isAttending(event, attendees)) {
+        mandatoryTimes.add(when.start(), when.end());
+        continue;
+      }
+
+      AttendeeSet eventAttendees = event.getAttendeeIds();
+      for (int i = 0; i < eventAttendees.size(); i++) {
+        int position = optionalAttendees.indexOf(eventAttendees.get(i));
+        if (position >= 0) {
+          optionalTimes[position].add(when.start(), when.end());
+        }
+      }
+    }
+    mandatoryTimes.sort();
+
+    OptionalAttendeeSweep sweep = new OptionalAttendeeSweep(request.getDuration());
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    for (String attendee : request.getOptionalAttendees()) {
+      // attendees that are left out of the IDs have no events
+      int position = optionalAttendees.indexOf(dictionary.lookup(attendee));
+      IntervalSet times =
+        position >= 0 ? optionalTimes[position] : new IntervalSet();
+      times.sort();
+      sweep.addOptionalAttendee(
+        times,
+        request.getOptionalAttendeeWeight(attendee)
+      );
+    }
+    return sweep
+      .findBestTimes(
+        getFreeTimes(mandatoryTimes, request.getDuration()),
+        request.getAttendees().size() != 0
+      )
+      .toTimeRanges();
+  }
+
+  /**
+   * Gets collection of TimeRange of the times the largest weight of optional
+   * attendees can make given an index of the attendees' busy times, and the request
+   *
+   * @param index the busy times of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are best for attendees
+   */
+  private Collection<TimeRange> getMaximizedQuery(
+    AttendeeIndex index,
+    MeetingRequest request
+  ) {
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+
+    IntervalSet mandatoryTimes = new IntervalSet();
+    for (String attendee : request.getAttendees()) {
+      mandatoryTimes.addAll(getBusyTimes(index, attendee));
+    }
+    mandatoryTimes.sort();
+
+    OptionalAttendeeSweep sweep = new OptionalAttendeeSweep(request.getDuration());
+    for (String attendee : request.getOptionalAttendees()) {
+      sweep.addOptionalAttendee(
+        getBusyTimes(index, attendee),
+        request.getOptionalAttendeeWeight(attendee)
+      );
+    }
+    return sweep
+      .findBestTimes(
+        getFreeTimes(mandatoryTimes, request.getDuration()),
+        request.getAttendees().size() != 0
+      )
+      .toTimeRanges();
+  }
+
+  /**
+   * Gets collection of TimeRange of the times the largest weight of optional
+   * attendees can make given per-minute event counts of the attendees, and the request
+   *
+   * @param index the per-minute event counts of every attendee
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are best for attendees
+   */
+  private Collection<TimeRange> getMaximizedQuery(
+    AvailabilityIndex index,
+    MeetingRequest request
+  ) {
+    Collection<TimeRange> trivialAnswer = getTrivialQuery(request);
+    if (trivialAnswer != null) {
+      return trivialAnswer;
+    }
+
+    OptionalAttendeeSweep sweep = new OptionalAttendeeSweep(request.getDuration());
+    for (String attendee : request.getOptionalAttendees()) {
+      sweep.addOptionalAttendee(
+        withOffHours(attendee, index.getBusyTimes(attendee)),
+        request.getOptionalAttendeeWeight(attendee)
+      );
+    }
+    IntervalSet mandatoryFreeTimes = duringWorkingHours(
+      index.getFreeTimes(request.getAttendees(), request.getDuration()),
+      request.getAttendees(),
+      request.getDuration()
+    );
+    return sweep
+      .findBestTimes(mandatoryFreeTimes, request.getAttendees().size() != 0)
+      .toTimeRanges();
+  }
+
+  /**
+   * Gets the answer for requests that do not depend on any events: a meeting that
+   * no one attends can happen whenever, and one longer than a day never can
+   *
+   * @param request the request that is made including the attendees visiting
+   * @return Collection of TimeRanges that are available, or null if the events
+   *         have to be searched
+   */
+  private static Collection<TimeRange> getTrivialQuery(MeetingRequest request) {
+    // if no one is attending then meeting can happening whenever
+    if (
+      request.getAttendees().size() == 0 &&
+      request.getOptionalAttendees().size() == 0
+    ) {
+      return Arrays.asList(TimeRange.WHOLE_DAY);
+    }
+
+    // if the meeting is longer than a day it is impossible to occur
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Arrays.asList();
+    }
+    return null;
+  }
+
+  /**
+   * Gets the gaps between blockedTimes that the meeting fits in
+   *
+   * @param blockedTimes the time slots that can not be used, sorted by start time
+   * @param duration the length of the requested meeting in minutes
+   * @return the available times in chronological order
+   */
+  private static IntervalSet getFreeTimes(
+    IntervalSet blockedTimes,
+    long duration
+  ) {
+    return blockedTimes.gaps(
+      TimeRange.START_OF_DAY,
+      TimeRange.WHOLE_DAY.end(),
+      duration
+    );
+  }
+
+  /**
+   * Moves a sweep past one blocked time. If the block starts after startTime it
+   * closes off the gap before it, which is added to returnTimeRange if the meeting
+   * fits. Either way the sweep can only continue once the block is over
+   *
+   * @param returnTimeRange the return times of all possible meeting times
+   * @param startTime the start of the current gap, or the end of the busy run so far
+   * @param blockStart the start of the next blocked time in start order
+   * @param blockEnd the end of the next blocked time
+   * @param duration the length of the requested meeting in minutes
+   * @return the new startTime
+   */
+  private static int sweep(
+    IntervalSet returnTimeRange,
+    int startTime,
+    int blockStart,
+    int blockEnd,
+    long duration
+  ) {
+    int endOfDay = TimeRange.WHOLE_DAY.end();
+    if (startTime < endOfDay && blockStart > startTime) {
+      returnTimeRange.addIfLongEnough(
+        startTime,
+        Math.min(blockStart, endOfDay),
+        duration
+      );
+    }
+    return Math.max(startTime, blockEnd);
+  }
+
+  /**
+   * Given a start time of a possible returnTimeRange finds the next closest end
+   * time using blockedTimes
+   *
+   * @param blockedTimes the time slots that can not be used in returnTimeRange
+   * @param startTime the start time of a slot in returnTimeRange
+   * @return endTime given startTime, returns 24 * 60(the end of the day) if no
+   *         endTIme could be found through blockedTImes
+   */
+  private Integer getEndTime(
+    Collection<TimeRange> blockedTimes,
+    int startTime
+  ) {
+    int possibleEndTime = 0;
+    for (TimeRange start : blockedTimes) {
+      possibleEndTime = start.start();
+
+      if (possibleEndTime > startTime) {
+        return possibleEndTime;
+      }
+    }
+    // can only get here if no possibleEndTime was found
+    return 24 * 60;
+  }
+
+  /**
+   * Given a start time of a possible returnTimeRange returns whether or not it
+   * inbetween a blocked time range using blockedTimes
+   *
+   * @param blockedTimes the time slots that can not be used in returnTimeRange
+   * @param startTime the start time of a slot in returnTimeRange
+   * @return true if start time is inbetween a blocked time false if not
+   */
+  private boolean getIsInbetween(
+    Collection<TimeRange> blockedTimes,
+    int startTime
+  ) {
+    for (TimeRange block : blockedTimes) {
+      if (startTime < block.end() && startTime >= block.start()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Given a start time of a possible returnTimeRange returns whether or not it
+   * inbetween a blocked time range using blockedTimes
+   *
+   * @param meetingTime a possible TimeRange that could be added to returnTimeRange
+   * @param returnTimeRange the return TimeRange of all possible meeting times
+   * @return true if any time of meetingTime is already included in returnTimeRange
+   */
+  private boolean getAlreadyHaveTimeRange(
+    TimeRange meetingTime,
+    Collection<TimeRange> returnTimeRange
+  ) {
+    for (TimeRange alreadyHave : returnTimeRange) {
+      if (meetingTime.contains(alreadyHave)) {
+        return true;
       }
     }
     return false;
   }
+
+  /**
+   * Blocked times split by whether they come from a mandatory or optional attendee.
+   */
+  private static final class TaggedTimes {
+    private final IntervalSet mandatory;
+    private final IntervalSet optional;
+
+    private TaggedTimes() {
+      this(new IntervalSet(), new IntervalSet());
+    }
+
+    private TaggedTimes(IntervalSet mandatory, IntervalSet optional) {
+      this.mandatory = mandatory;
+      this.optional = optional;
+    }
+
+    /**
+     * Adds the event's time to the mandatory times if a mandatory attendee is at
+     * it, otherwise to the optional times if an optional attendee is.
+     */
+    private void add(
+      Event event,
+      AttendeeSet attendees,
+      AttendeeSet optionalAttendees
+    ) {
+      TimeRange when = event.getWhen();
+      if (isAttending(event, attendees)) {
+        mandatory.add(when.start(), when.end());
+      } else if (isAttending(event, optionalAttendees)) {
+        optional.add(when.start(), when.end());
+      }
+    }
+
+    /**
+     * Sorts both sets low to high by start time, which the sweep relies on.
+     */
+    private void sort() {
+      mandatory.sort();
+      optional.sort();
+    }
+  }
+
+  /**
+   * Scans a range of chunks of the events for tagged blocked times, splitting the
+   * range in half until there is one chunk per task.
+   */
+  private static final class CollectTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Event[] events;
+    private final AttendeeSet attendees;
+    private final AttendeeSet optionalAttendees;
+    private final TaggedTimes[] runs;
+    private final int fromChunk;
+    private final int toChunk;
+
+    private CollectTask(
+      Event[] events,
+      AttendeeSet attendees,
+      AttendeeSet optionalAttendees,
+      TaggedTimes[] runs,
+      int fromChunk,
+      int toChunk
+    ) {
+      this.events = events;
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+      this.runs = runs;
+      this.fromChunk = fromChunk;
+      this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (toChunk - fromChunk > 1) {
+        int mid = (fromChunk + toChunk) >>> 1;
+        invokeAll(
+          new CollectTask(
+            events,
+            attendees,
+            optionalAttendees,
+            runs,
+            fromChunk,
+            mid
+          ),
+          new CollectTask(
+            events,
+            attendees,
+            optionalAttendees,
+            runs,
+            mid,
+            toChunk
+          )
+        );
+        return;
+      }
+
+      // each chunk covers an even share of the events
+      int from = (int) ((long) events.length * fromChunk / runs.length);
+      int to = (int) ((long) events.length * toChunk / runs.length);
+      TaggedTimes run = new TaggedTimes();
+      for (int i = from; i < to; i++) {
+        run.add(events[i], attendees, optionalAttendees);
+      }
+      run.sort();
+      runs[fromChunk] = run;
+    }
+  }
+
+  /**
+   * Busy minutes of the mandatory attendees alone and of every attendee.
+   */
+  private static final class BusyBitmaps {
+    private final MinuteBitmap mandatory;
+    private final MinuteBitmap all;
+
+    private BusyBitmaps(MinuteBitmap mandatory, MinuteBitmap all) {
+      this.mandatory = mandatory;
+      this.all = all;
+    }
+  }
+
+  /**
+   * A read-only view of one collection of events followed by another.
+   */
+  private static final class ConcatenatedEvents extends AbstractCollection<Event> {
+    private final Collection<Event> first;
+    private final Collection<Event> second;
+
+    private ConcatenatedEvents(Collection<Event> first, Collection<Event> second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public Iterator<Event> iterator() {
+      return Stream.concat(first.stream(), second.stream()).iterator();
+    }
+
+    @Override
+    public int size() {
+      return first.size() + second.size();
+    }
+  }
 }
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * FreeBusyCache remembers each attendee's busy times from an {@link AttendeeIndex} after
+ * overlapping and touching times have been merged together, so that people who appear in many
+ * queries are only merged once. An entry is only used while the index holds the very busy times it
+ * was computed from. Indexes made with {@code AttendeeIndex.withChange} share the busy times of
+ * everyone the change did not touch, so those people stay cached across edits, while any other
+ * index misses. The least recently used attendees are evicted once the cache is full, and an
+ * attendee can be invalidated when their events change. The cache is safe to share between
+ * threads.
+ */
+public final class FreeBusyCache {
+  private final int maxEntries;
+
+  // Attendee to their merged busy times, ordered from least to most recently used.
+  private final LinkedHashMap<String, CachedBusyTimes> entries;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * Creates a cache that holds the busy times of at most {@code maxEntries} attendees.
+   */
+  public FreeBusyCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<String, CachedBusyTimes>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedBusyTimes> eldest) {
+        return size() > FreeBusyCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the merged busy times of {@code attendee} in {@code index}, sorted by start time. The
+   * set is shared with the cache, so callers must not modify it.
+   */
+  IntervalSet getMergedBusyTimes(AttendeeIndex index, String attendee) {
+    IntervalSet source = index.getBusyIntervals(attendee);
+    synchronized (this) {
+      CachedBusyTimes entry = entries.get(attendee);
+      if (entry != null && entry.source == source) {
+        hits++;
+        return entry.busyTimes;
+      }
+      misses++;
+    }
+
+    // Merge outside the lock so other attendees can be looked up in the meantime.
+    IntervalSet busyTimes = source.merged();
+    synchronized (this) {
+      entries.put(attendee, new CachedBusyTimes(source, busyTimes));
+    }
+    return busyTimes;
+  }
+
+  /**
+   * Drops the cached busy times of {@code attendee}. Call this when their events change.
+   */
+  public synchronized void invalidate(String attendee) {
+    entries.remove(attendee);
+  }
+
+  /**
+   * Returns the number of attendees whose busy times are cached.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the number of lookups that were answered from the cache.
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that had to merge the attendee's busy times.
+   */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  private static final class CachedBusyTimes {
+    // The index's own busy times the entry was merged from, compared by identity.
+    private final IntervalSet source;
+    private final IntervalSet busyTimes;
+
+    private CachedBusyTimes(IntervalSet source, IntervalSet busyTimes) {
+      this.source = source;
+      this.busyTimes = busyTimes;
+    }
+  }
+}
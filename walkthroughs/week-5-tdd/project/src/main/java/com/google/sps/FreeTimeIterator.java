@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * FreeTimeIterator lists the gaps in a day that a meeting fits in, in chronological order, working
+ * out each one only when it is asked for. Every attendee's busy times are already sorted, so they
+ * are merged on the fly through a heap rather than collected and sorted up front, and a caller that
+ * stops after the first few gaps never reads the busy times later in the day.
+ */
+final class FreeTimeIterator implements Iterator<TimeRange> {
+  private static final int END_OF_DAY = TimeRange.WHOLE_DAY.end();
+
+  private final long duration;
+  private final PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+
+  // Start of the current gap, or the end of the busy run so far.
+  private int time = TimeRange.START_OF_DAY;
+
+  // The gap that hasNext found and next has not returned yet.
+  private TimeRange next;
+
+  /**
+   * Creates an iterator over the gaps of at least {@code duration} minutes that the given busy
+   * times leave.
+   *
+   * @param busyTimes each attendee's busy times, every set sorted by start time
+   */
+  FreeTimeIterator(Collection<IntervalSet> busyTimes, long duration) {
+    this.duration = duration;
+    for (IntervalSet times : busyTimes) {
+      if (!times.isEmpty()) {
+        cursors.add(new Cursor(times));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = findNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public TimeRange next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    TimeRange gap = next;
+    next = null;
+    return gap;
+  }
+
+  /**
+   * Sweeps forward until the next gap the meeting fits in is closed off, or returns null once the
+   * day is over.
+   */
+  private TimeRange findNext() {
+    while (!cursors.isEmpty() && time < END_OF_DAY) {
+      Cursor cursor = cursors.poll();
+      int start = cursor.start();
+      int end = cursor.end();
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+
+      int gapStart = time;
+      time = Math.max(time, end);
+      if (start > gapStart && Math.min(start, END_OF_DAY) - gapStart >= duration) {
+        return TimeRange.fromStartEnd(gapStart, Math.min(start, END_OF_DAY), false);
+      }
+    }
+
+    // The rest of the day is free once every busy time has been passed.
+    int gapStart = time;
+    time = END_OF_DAY;
+    if (gapStart < END_OF_DAY && END_OF_DAY - gapStart >= duration) {
+      return TimeRange.fromStartEnd(gapStart, END_OF_DAY, false);
+    }
+    return null;
+  }
+
+  /**
+   * The next busy time of one attendee.
+   */
+  private static final class Cursor implements Comparable<Cursor> {
+    private final IntervalSet times;
+    private int position;
+
+    private Cursor(IntervalSet times) {
+      this.times = times;
+    }
+
+    private int start() {
+      return times.start(position);
+    }
+
+    private int end() {
+      return times.end(position);
+    }
+
+    /**
+     * Moves to the next busy time, returning false if there are none left.
+     */
+    private boolean advance() {
+      position++;
+      return position < times.size();
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      return Integer.compare(start(), other.start());
+    }
+  }
+}
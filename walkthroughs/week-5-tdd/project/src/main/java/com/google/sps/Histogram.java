@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram counts non-negative values, such as latencies in nanoseconds, in buckets that grow
+ * exponentially, so a fixed few kilobytes cover every long. Each power of two is split into four
+ * buckets, so a percentile is within 25% of the true value. Recording is lock-free and safe from
+ * many threads at once; readers may see a recording that is only partly counted.
+ */
+public final class Histogram {
+  // Values below 4 get a bucket each, and each power of two from 4 up gets SUB_BUCKETS.
+  private static final int SUB_BUCKETS = 4;
+  private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Counts one value. Negative values are counted as 0.
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+    counts.incrementAndGet(bucket(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the number of values recorded.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the mean of the values recorded, or 0 if there are none.
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Returns the largest value recorded, or 0 if there are none.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns an upper bound on the value below which {@code percentile} percent of the values fall,
+   * or 0 if there are none.
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(getMax(), upperBound(i));
+      }
+    }
+    return getMax();
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    // The highest set bit picks the power of two and the two bits below it pick the sub-bucket.
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+    return exponent * SUB_BUCKETS + subBucket;
+  }
+
+  // The largest value that falls in the bucket.
+  static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    int exponent = bucket / SUB_BUCKETS;
+    long subBucket = bucket % SUB_BUCKETS;
+    long next = (SUB_BUCKETS + subBucket + 1) << (exponent - 2);
+    // The last bucket runs up to Long.MAX_VALUE, where next wraps around.
+    return next <= 0 ? Long.MAX_VALUE : next - 1;
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HorizonCalendar holds when people are busy over weeks or months rather than a single day. Each
+ * person's busy time is kept as a merged timeline, so finding free time after some point only
+ * looks at the busy intervals that follow it. A calendar is not thread-safe while it is being
+ * filled in.
+ */
+public final class HorizonCalendar {
+  private final Map<String, BusyTimeline> timelines = new HashMap<>();
+
+  /**
+   * Marks every attendee busy for {@code when}.
+   *
+   * @param attendees The people who are busy. Must be non-null.
+   * @param when The time they are busy. Must be non-null.
+   */
+  public void add(Collection<String> attendees, EpochTimeRange when) {
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    for (String attendee : attendees) {
+      timelines.computeIfAbsent(attendee, key -> new BusyTimeline()).add(when.start(), when.end());
+    }
+  }
+
+  /**
+   * Adds single-day events that happen on the given day, where {@code epochDay} counts days since
+   * the epoch in UTC.
+   */
+  public void addDay(long epochDay, Collection<Event> events) {
+    for (Event event : events) {
+      add(event.getAttendees(), EpochTimeRange.fromDay(epochDay, event.getWhen()));
+    }
+  }
+
+  /**
+   * Adds the occurrences of a recurring event that overlap {@code window}. Only those occurrences
+   * are worked out, so a long series costs no more than the part of it the window covers.
+   */
+  public void addRecurring(RecurringEvent event, EpochTimeRange window) {
+    for (EpochTimeRange occurrence : event.getOccurrences(window)) {
+      add(event.getAttendees(), occurrence);
+    }
+  }
+
+  /**
+   * Returns the timeline of {@code attendee}, or null if they are never busy.
+   */
+  BusyTimeline getTimeline(String attendee) {
+    return timelines.get(attendee);
+  }
+}
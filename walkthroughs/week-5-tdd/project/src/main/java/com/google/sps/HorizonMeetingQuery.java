@@ -0,0 +1,202 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds meeting times over a window of any length, such as the next few weeks. Unlike
+ * {@link FindMeetingQuery}, meetings may be longer than a day and a search stops as soon as it has
+ * found enough times, so asking for the next few slots does not walk the whole window. Working
+ * hours, if given, block the same times on every day of the window.
+ */
+public final class HorizonMeetingQuery {
+  private final WorkingHours workingHours;
+
+  /**
+   * Creates a query with no working hours, so attendees can meet at any time of day.
+   */
+  public HorizonMeetingQuery() {
+    this(WorkingHours.NONE);
+  }
+
+  private HorizonMeetingQuery(WorkingHours workingHours) {
+    this.workingHours = workingHours;
+  }
+
+  /**
+   * Returns a copy of this query that treats the time outside each attendee's working hours as
+   * busy, as {@link FindMeetingQuery#withWorkingHours} does. Attendees without working hours are
+   * available all day.
+   *
+   * @param workingHours when each attendee works. Must be non-null.
+   */
+  public HorizonMeetingQuery withWorkingHours(WorkingHours workingHours) {
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null");
+    }
+    return new HorizonMeetingQuery(workingHours);
+  }
+
+  /**
+   * Gets the first available times for a meeting within a window. As with
+   * {@link FindMeetingQuery#query}, optional attendees are dropped only if no time works for them
+   * and there are mandatory attendees to fall back to.
+   *
+   * @param calendar when every attendee is busy
+   * @param request the request that is made including the attendees visiting
+   * @param window the span of time the meeting has to fit in
+   * @param limit the most times to return
+   * @return up to {@code limit} available times in chronological order. Each one is a whole free
+   *     gap, clipped to the window.
+   */
+  public List<EpochTimeRange> query(
+      HorizonCalendar calendar, MeetingRequest request, EpochTimeRange window, int limit) {
+    Set<String> everyone = new HashSet<>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+
+    List<EpochTimeRange> withOptional =
+        getFreeTimes(calendar, everyone, request.getDuration(), window, limit);
+    if (withOptional.size() != 0 || request.getAttendees().size() == 0) {
+      return withOptional;
+    }
+    return getFreeTimes(calendar, request.getAttendees(), request.getDuration(), window, limit);
+  }
+
+  /**
+   * Sweeps the attendees' timelines from the start of the window, merging them on the fly so that
+   * only the busy intervals before the last returned time are read.
+   */
+  private List<EpochTimeRange> getFreeTimes(HorizonCalendar calendar,
+      Collection<String> attendees, long duration, EpochTimeRange window, int limit) {
+    List<EpochTimeRange> freeTimes = new ArrayList<>();
+    if (limit <= 0) {
+      return freeTimes;
+    }
+
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+    for (String attendee : attendees) {
+      BusyTimeline timeline = calendar.getTimeline(attendee);
+      if (timeline != null) {
+        Cursor cursor = new Cursor(timeline.busyFrom(window.start()));
+        if (cursor.advance()) {
+          cursors.add(cursor);
+        }
+      }
+
+      IntervalSet offHours = workingHours.getOffHours(attendee);
+      if (offHours.size() != 0) {
+        Cursor cursor = new Cursor(offHoursFrom(offHours, window.start()));
+        cursor.advance();
+        cursors.add(cursor);
+      }
+    }
+
+    long time = window.start();
+    while (!cursors.isEmpty() && freeTimes.size() < limit && time < window.end()) {
+      Cursor cursor = cursors.poll();
+      if (cursor.start > time) {
+        addIfLongEnough(freeTimes, time, Math.min(cursor.start, window.end()), duration);
+      }
+      time = Math.max(time, cursor.end);
+
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+
+    if (freeTimes.size() < limit && time < window.end()) {
+      addIfLongEnough(freeTimes, time, window.end(), duration);
+    }
+    return freeTimes;
+  }
+
+  /**
+   * Returns the times outside working hours from the start of the day that {@code time} falls in,
+   * repeating the off hours of one UTC day for as long as they are read.
+   */
+  private static Iterator<Map.Entry<Long, Long>> offHoursFrom(IntervalSet offHours, long time) {
+    return new Iterator<Map.Entry<Long, Long>>() {
+      private long day = Math.floorDiv(time, EpochTimeRange.MINUTES_PER_DAY);
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public Map.Entry<Long, Long> next() {
+        if (next == offHours.size()) {
+          day++;
+          next = 0;
+        }
+
+        long dayStart = day * EpochTimeRange.MINUTES_PER_DAY;
+        Map.Entry<Long, Long> busy = new AbstractMap.SimpleImmutableEntry<>(
+            dayStart + offHours.start(next), dayStart + offHours.end(next));
+        next++;
+        return busy;
+      }
+    };
+  }
+
+  private static void addIfLongEnough(
+      List<EpochTimeRange> freeTimes, long start, long end, long duration) {
+    if (end - start >= duration) {
+      freeTimes.add(EpochTimeRange.fromStartEnd(start, end));
+    }
+  }
+
+  /**
+   * The next busy interval of one attendee's timeline.
+   */
+  private static final class Cursor implements Comparable<Cursor> {
+    private final Iterator<Map.Entry<Long, Long>> busy;
+    private long start;
+    private long end;
+
+    private Cursor(Iterator<Map.Entry<Long, Long>> busy) {
+      this.busy = busy;
+    }
+
+    /**
+     * Moves to the next busy interval, returning false if there are none left.
+     */
+    private boolean advance() {
+      if (!busy.hasNext()) {
+        return false;
+      }
+
+      Map.Entry<Long, Long> next = busy.next();
+      start = next.getKey();
+      end = next.getValue();
+      return true;
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      return Long.compare(start, other.start);
+    }
+  }
+}
@@ -0,0 +1,363 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * IntervalSet is a compact list of half-open {@code [start, end)} intervals of minutes, kept in two
+ * parallel {@code int} arrays instead of one {@code TimeRange} object per interval. Adding to a set
+ * only grows its arrays now and then, and the set operations work on whole arrays, so the query
+ * path does not allocate per interval and only builds {@code TimeRange}s for its final answer.
+ *
+ * <p>A set is <em>sorted</em> when its intervals are in start order, and <em>merged</em> when it is
+ * sorted and no two intervals overlap or touch. Each operation says which it needs. Sets are not
+ * thread-safe while they are being added to, and must not be changed once they are shared.
+ */
+public final class IntervalSet {
+  private int[] starts;
+  private int[] ends;
+  private int size;
+
+  /**
+   * Creates an empty set.
+   */
+  public IntervalSet() {
+    this(8);
+  }
+
+  /**
+   * Creates an empty set with room for {@code capacity} intervals before it has to grow.
+   */
+  public IntervalSet(int capacity) {
+    starts = new int[Math.max(capacity, 1)];
+    ends = new int[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Creates a set holding the given ranges, in the same order.
+   */
+  public static IntervalSet of(Collection<TimeRange> ranges) {
+    IntervalSet set = new IntervalSet(ranges.size());
+    for (TimeRange range : ranges) {
+      set.add(range.start(), range.end());
+    }
+    return set;
+  }
+
+  /**
+   * Returns the number of intervals in the set.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if the set has no intervals.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the start of the {@code i}th interval.
+   */
+  public int start(int i) {
+    return starts[i];
+  }
+
+  /**
+   * Returns the exclusive end of the {@code i}th interval.
+   */
+  public int end(int i) {
+    return ends[i];
+  }
+
+  /**
+   * Appends {@code [start, end)} to the set.
+   */
+  public void add(int start, int end) {
+    if (start > end) {
+      throw new IllegalArgumentException("start cannot be after end");
+    }
+
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /**
+   * Appends every interval of {@code other} to the set, in order.
+   */
+  public void addAll(IntervalSet other) {
+    if (size + other.size > starts.length) {
+      int capacity = Math.max(size + other.size, starts.length * 2);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+    }
+    System.arraycopy(other.starts, 0, starts, size, other.size);
+    System.arraycopy(other.ends, 0, ends, size, other.size);
+    size += other.size;
+  }
+
+  /**
+   * Sorts the intervals by start time, and intervals with the same start by end time.
+   */
+  public void sort() {
+    // Pack each interval into one long so a single primitive sort keeps the arrays in step. The
+    // start goes in the high half so it decides the order.
+    long[] packed = new long[size];
+    for (int i = 0; i < size; i++) {
+      packed[i] = ((long) starts[i] << 32) | (ends[i] & 0xFFFFFFFFL);
+    }
+    Arrays.sort(packed);
+    for (int i = 0; i < size; i++) {
+      starts[i] = (int) (packed[i] >> 32);
+      ends[i] = (int) packed[i];
+    }
+  }
+
+  /**
+   * Returns every interval of the given sorted sets in one set sorted the same way as {@link
+   * #sort()}, using a k-way heap merge in O(n log k) instead of sorting all n intervals again.
+   */
+  public static IntervalSet mergeSorted(List<IntervalSet> runs) {
+    int total = 0;
+    for (IntervalSet run : runs) {
+      total += run.size;
+    }
+
+    // A binary min-heap of the runs that have intervals left, keyed by their next interval.
+    int[] heap = new int[runs.size()];
+    int[] positions = new int[runs.size()];
+    int heapSize = 0;
+    for (int run = 0; run < runs.size(); run++) {
+      if (runs.get(run).size > 0) {
+        heap[heapSize++] = run;
+      }
+    }
+    for (int i = heapSize / 2 - 1; i >= 0; i--) {
+      siftDown(heap, heapSize, i, runs, positions);
+    }
+
+    IntervalSet merged = new IntervalSet(total);
+    while (heapSize > 0) {
+      int run = heap[0];
+      IntervalSet set = runs.get(run);
+      merged.add(set.starts[positions[run]], set.ends[positions[run]]);
+
+      positions[run]++;
+      if (positions[run] == set.size) {
+        heap[0] = heap[--heapSize];
+      }
+      siftDown(heap, heapSize, 0, runs, positions);
+    }
+    return merged;
+  }
+
+  /**
+   * Returns a merged copy of this sorted set, where intervals that overlap or touch are joined.
+   */
+  public IntervalSet merged() {
+    IntervalSet merged = new IntervalSet(size);
+    for (int i = 0; i < size; i++) {
+      merged.addMerging(starts[i], ends[i]);
+    }
+    return merged;
+  }
+
+  /**
+   * Returns the merged union of this set and {@code other}, which must both be sorted.
+   */
+  public IntervalSet union(IntervalSet other) {
+    IntervalSet union = new IntervalSet(size + other.size);
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && starts[i] <= other.starts[j])) {
+        union.addMerging(starts[i], ends[i]);
+        i++;
+      } else {
+        union.addMerging(other.starts[j], other.ends[j]);
+        j++;
+      }
+    }
+    return union;
+  }
+
+  /**
+   * Returns the merged intersection of this set and {@code other}, which must both be merged.
+   */
+  public IntervalSet intersection(IntervalSet other) {
+    IntervalSet intersection = new IntervalSet(Math.min(size, other.size));
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      int start = Math.max(starts[i], other.starts[j]);
+      int end = Math.min(ends[i], other.ends[j]);
+      if (start < end) {
+        intersection.add(start, end);
+      }
+
+      // Whichever interval ends first cannot overlap anything else in the other set.
+      if (ends[i] < other.ends[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return intersection;
+  }
+
+  /**
+   * Returns the parts of {@code [from, to)} that are not covered by this sorted set, such as the
+   * free time in a day given the busy times.
+   */
+  public IntervalSet complement(int from, int to) {
+    return gaps(from, to, 1);
+  }
+
+  /**
+   * Returns the gaps of at least {@code minLength} minutes that this sorted set leaves in
+   * {@code [from, to)}, in start order.
+   */
+  public IntervalSet gaps(int from, int to, long minLength) {
+    IntervalSet gaps = new IntervalSet(size + 1);
+    addGaps(gaps, from, to, minLength);
+    return gaps;
+  }
+
+  /**
+   * Appends the gaps of at least {@code minLength} minutes that this sorted set leaves in
+   * {@code [from, to)} to {@code out}, in start order. Intervals may overlap; each one either
+   * closes off the gap before it or extends the busy run that is already being tracked.
+   */
+  public void addGaps(IntervalSet out, int from, int to, long minLength) {
+    int gapStart = from;
+    for (int i = 0; i < size && gapStart < to; i++) {
+      if (starts[i] > gapStart) {
+        out.addIfLongEnough(gapStart, Math.min(starts[i], to), minLength);
+      }
+      gapStart = Math.max(gapStart, ends[i]);
+    }
+
+    if (gapStart < to) {
+      out.addIfLongEnough(gapStart, to, minLength);
+    }
+  }
+
+  /**
+   * Appends {@code [start, end)} if it is at least {@code minLength} minutes long.
+   */
+  void addIfLongEnough(int start, int end, long minLength) {
+    if (end - start >= minLength) {
+      add(start, end);
+    }
+  }
+
+  /**
+   * Returns the intervals as a list of {@code TimeRange}s, in the same order.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> ranges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ranges.add(TimeRange.fromStartEnd(starts[i], ends[i], false));
+    }
+    return ranges;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IntervalSet && equals(this, (IntervalSet) other);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = size;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * (31 * hash + starts[i]) + ends[i];
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("Intervals: [");
+    for (int i = 0; i < size; i++) {
+      builder.append(i == 0 ? "" : ", ").append('[').append(starts[i]).append(", ")
+          .append(ends[i]).append(')');
+    }
+    return builder.append(']').toString();
+  }
+
+  /**
+   * Appends {@code [start, end)}, joining it with the last interval if they overlap or touch. Only
+   * keeps the set merged if intervals are added in start order.
+   */
+  private void addMerging(int start, int end) {
+    if (size > 0 && start <= ends[size - 1]) {
+      ends[size - 1] = Math.max(ends[size - 1], end);
+    } else {
+      add(start, end);
+    }
+  }
+
+  private static void siftDown(
+      int[] heap, int heapSize, int i, List<IntervalSet> runs, int[] positions) {
+    while (true) {
+      int smallest = i;
+      for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+        if (nextKey(heap[child], runs, positions) < nextKey(heap[smallest], runs, positions)) {
+          smallest = child;
+        }
+      }
+      if (smallest == i) {
+        return;
+      }
+
+      int swap = heap[i];
+      heap[i] = heap[smallest];
+      heap[smallest] = swap;
+      i = smallest;
+    }
+  }
+
+  /** Packs the next interval of the run the same way {@link #sort()} does. */
+  private static long nextKey(int run, List<IntervalSet> runs, int[] positions) {
+    IntervalSet set = runs.get(run);
+    int i = positions[run];
+    return ((long) set.starts[i] << 32) | (set.ends[i] & 0xFFFFFFFFL);
+  }
+
+  private static boolean equals(IntervalSet a, IntervalSet b) {
+    if (a.size != b.size) {
+      return false;
+    }
+
+    for (int i = 0; i < a.size; i++) {
+      if (a.starts[i] != b.starts[i] || a.ends[i] != b.ends[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,261 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JsonCodec converts the calendar types to and from JSON. {@link MeetingRequest} and
+ * {@link TimeRange} are read and written by hand-written type adapters rather than by reflection,
+ * so requests are parsed field by field straight from the reader and answers are written straight
+ * to the writer. The JSON is the same as reflection gives, except that fields missing from a
+ * request take their defaults instead of being left null. The codec keeps no state between calls
+ * and is safe to share between threads.
+ */
+public final class JsonCodec {
+  /** A Gson that uses the codec's type adapters. */
+  public static final Gson GSON =
+      new GsonBuilder()
+          .registerTypeAdapter(TimeRange.class, new TimeRangeAdapter().nullSafe())
+          .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter().nullSafe())
+          .create();
+
+  private JsonCodec() {}
+
+  /**
+   * Reads one meeting request from {@code reader}, or returns null if the reader holds nothing or
+   * a JSON null.
+   *
+   * @throws com.google.gson.JsonParseException if the reader does not hold a meeting request
+   * @throws IllegalArgumentException if the request is not valid, such as a weight that is not
+   *     positive
+   */
+  public static MeetingRequest readMeetingRequest(Reader reader) {
+    return GSON.fromJson(GSON.newJsonReader(reader), MeetingRequest.class);
+  }
+
+  /**
+   * Reads a JSON array of meeting requests from {@code reader}, or returns null if the reader holds
+   * nothing or a JSON null.
+   *
+   * @throws com.google.gson.JsonParseException if the reader does not hold an array of meeting
+   *     requests, or if any element is null
+   * @throws IllegalArgumentException if a request is not valid, such as a weight that is not
+   *     positive
+   */
+  public static List<MeetingRequest> readMeetingRequests(Reader reader) {
+    List<MeetingRequest> requests =
+        GSON.fromJson(
+            GSON.newJsonReader(reader), new TypeToken<List<MeetingRequest>>() {}.getType());
+    if (requests != null) {
+      for (int i = 0; i < requests.size(); i++) {
+        if (requests.get(i) == null) {
+          throw new JsonParseException("Expected a meeting request at index " + i);
+        }
+      }
+    }
+    return requests;
+  }
+
+  /**
+   * Reads working hours from {@code reader}, given as an object from each person's name to their
+   * hours, such as {@code {"Alice": {"start": 540, "end": 1020, "utcOffset": -300}}}. The times are
+   * minutes of the person's local day and the offset is minutes ahead of UTC, as in
+   * {@link WorkingHours#with}. A reader that holds nothing or a JSON null gives no working hours.
+   *
+   * @throws com.google.gson.JsonParseException if the reader does not hold working hours
+   * @throws IllegalArgumentException if any hours are not valid, such as a start after the day
+   */
+  public static WorkingHours readWorkingHours(Reader reader) {
+    Map<String, Hours> hoursByAttendee =
+        GSON.fromJson(GSON.newJsonReader(reader), new TypeToken<Map<String, Hours>>() {}.getType());
+    WorkingHours workingHours = WorkingHours.NONE;
+    if (hoursByAttendee != null) {
+      for (Map.Entry<String, Hours> entry : hoursByAttendee.entrySet()) {
+        Hours hours = entry.getValue();
+        workingHours = workingHours.with(entry.getKey(), hours.start, hours.end, hours.utcOffset);
+      }
+    }
+    return workingHours;
+  }
+
+  /**
+   * Writes {@code value} to {@code writer} as JSON without building the whole document first. The
+   * writer is flushed but not closed.
+   */
+  public static void write(Object value, Writer writer) throws IOException {
+    JsonWriter json = GSON.newJsonWriter(writer);
+    GSON.toJson(value, value == null ? Object.class : value.getClass(), json);
+    json.flush();
+  }
+
+  /** One person's working hours as they appear in JSON. */
+  private static final class Hours {
+    private int start;
+    private int end;
+    private int utcOffset;
+  }
+
+  /** Reads and writes a {@link TimeRange} as {@code {"start": ..., "duration": ...}}. */
+  private static final class TimeRangeAdapter extends TypeAdapter<TimeRange> {
+    @Override
+    public void write(JsonWriter out, TimeRange range) throws IOException {
+      out.beginObject();
+      out.name("start").value(range.start());
+      out.name("duration").value(range.duration());
+      out.endObject();
+    }
+
+    @Override
+    public TimeRange read(JsonReader in) throws IOException {
+      int start = 0;
+      int duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String field = in.nextName();
+        if (field.equals("start")) {
+          start = in.nextInt();
+        } else if (field.equals("duration")) {
+          duration = in.nextInt();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return TimeRange.fromStartDuration(start, duration);
+    }
+  }
+
+  /**
+   * Reads and writes a {@link MeetingRequest} with the same field names as the class. Unknown
+   * fields are skipped.
+   */
+  private static final class MeetingRequestAdapter extends TypeAdapter<MeetingRequest> {
+    @Override
+    public void write(JsonWriter out, MeetingRequest request) throws IOException {
+      out.beginObject();
+      out.name("attendees");
+      writeStrings(out, request.getAttendees());
+      out.name("optional_attendees");
+      writeStrings(out, request.getOptionalAttendees());
+      out.name("optional_attendee_weights").beginObject();
+      for (String attendee : request.getOptionalAttendees()) {
+        int weight = request.getOptionalAttendeeWeight(attendee);
+        if (weight != 1) {
+          out.name(attendee).value(weight);
+        }
+      }
+      out.endObject();
+      out.name("maximize_optional_attendees").value(request.isMaximizingOptionalAttendees());
+      out.name("duration").value(request.getDuration());
+      out.name("resource_pools").beginArray();
+      for (List<String> pool : request.getResourcePools()) {
+        writeStrings(out, pool);
+      }
+      out.endArray();
+      out.endObject();
+    }
+
+    @Override
+    public MeetingRequest read(JsonReader in) throws IOException {
+      List<String> attendees = new ArrayList<>();
+      List<String> optionalAttendees = new ArrayList<>();
+      Map<String, Integer> weights = new HashMap<>();
+      boolean maximize = false;
+      long duration = 0;
+      List<List<String>> resourcePools = new ArrayList<>();
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String field = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+        } else if (field.equals("attendees")) {
+          readStrings(in, attendees);
+        } else if (field.equals("optional_attendees")) {
+          readStrings(in, optionalAttendees);
+        } else if (field.equals("optional_attendee_weights")) {
+          in.beginObject();
+          while (in.hasNext()) {
+            weights.put(in.nextName(), in.nextInt());
+          }
+          in.endObject();
+        } else if (field.equals("maximize_optional_attendees")) {
+          maximize = in.nextBoolean();
+        } else if (field.equals("duration")) {
+          duration = in.nextLong();
+        } else if (field.equals("resource_pools")) {
+          in.beginArray();
+          while (in.hasNext()) {
+            List<String> pool = new ArrayList<>();
+            readStrings(in, pool);
+            resourcePools.add(pool);
+          }
+          in.endArray();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+
+      // Build the request only once every field is read, since optional attendees are checked
+      // against the required ones.
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      for (String attendee : optionalAttendees) {
+        Integer weight = weights.get(attendee);
+        if (weight == null) {
+          request.addOptionalAttendee(attendee);
+        } else {
+          request.addOptionalAttendee(attendee, weight);
+        }
+      }
+      request.setMaximizeOptionalAttendees(maximize);
+      for (List<String> pool : resourcePools) {
+        request.addResourcePool(pool);
+      }
+      return request;
+    }
+
+    private static void writeStrings(JsonWriter out, Iterable<String> strings) throws IOException {
+      out.beginArray();
+      for (String string : strings) {
+        out.value(string);
+      }
+      out.endArray();
+    }
+
+    private static void readStrings(JsonReader in, List<String> strings) throws IOException {
+      in.beginArray();
+      while (in.hasNext()) {
+        strings.add(in.nextString());
+      }
+      in.endArray();
+    }
+  }
+}
@@ -18,7 +18,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
@@ -27,9 +31,28 @@ public final class MeetingRequest {
   // Some optional attendees for this new meeting. Use a set to avoid duplicates.
   private final Collection<String> optional_attendees = new HashSet<>();
 
+  // How much each optional attendee counts when maximizing optional attendees. Attendees that are
+  // not in the map count once.
+  private final Map<String, Integer> optional_attendee_weights = new HashMap<>();
+
+  // Whether to look for the times the most optional attendees can make, instead of only the times
+  // all of them can make.
+  private boolean maximize_optional_attendees;
+
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Pools of interchangeable resources, such as rooms, that the meeting needs one of each. The
+  // bookings of a resource are the events that list it as an attendee.
+  private final List<List<String>> resource_pools = new ArrayList<>();
+
+  // Both groups of attendees encoded with the default AttendeeDictionary, or null until they are
+  // first needed. Names the dictionary does not know are left out rather than interned, so an
+  // encoding that misses some is only reused until the dictionary grows, in case events with those
+  // names have been added since. Transient so the JSON keeps names.
+  private transient Encoding attendeeIds;
+  private transient Encoding optionalAttendeeIds;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -49,19 +72,149 @@ public final class MeetingRequest {
     return Collections.unmodifiableCollection(optional_attendees);
   }
 
+  /**
+   * Returns the IDs of the required attendees that the default {@link AttendeeDictionary} knows.
+   */
+  AttendeeSet getAttendeeIds() {
+    if (attendeeIds == null || !attendeeIds.isCurrent()) {
+      attendeeIds = Encoding.of(attendees);
+    }
+    return attendeeIds.ids;
+  }
+
+  /**
+   * Returns the IDs of the optional attendees that the default {@link AttendeeDictionary} knows.
+   */
+  AttendeeSet getOptionalAttendeeIds() {
+    if (optionalAttendeeIds == null || !optionalAttendeeIds.isCurrent()) {
+      optionalAttendeeIds = Encoding.of(optional_attendees);
+    }
+    return optionalAttendeeIds.ids;
+  }
+
   /**
    * Adds one optional attendee for the meeting.
    */
   public void addOptionalAttendee(String attendee) {
     if (!attendees.contains(attendee)) {
       optional_attendees.add(attendee);
+      optionalAttendeeIds = null;
     }
   }
 
+  /**
+   * Adds one optional attendee for the meeting who counts as {@code weight} attendees when
+   * maximizing optional attendees.
+   */
+  public void addOptionalAttendee(String attendee, int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("weight must be positive");
+    }
+
+    if (!attendees.contains(attendee)) {
+      optional_attendees.add(attendee);
+      optional_attendee_weights.put(attendee, weight);
+      optionalAttendeeIds = null;
+    }
+  }
+
+  /**
+   * Returns how much an optional attendee counts when maximizing optional attendees.
+   */
+  public int getOptionalAttendeeWeight(String attendee) {
+    // Gson leaves fields that are missing from the JSON null.
+    if (optional_attendee_weights == null) {
+      return 1;
+    }
+    return optional_attendee_weights.getOrDefault(attendee, 1);
+  }
+
+  /**
+   * Sets whether the meeting should be held when the largest possible weight of optional attendees
+   * can make it, rather than only when every optional attendee can.
+   */
+  public void setMaximizeOptionalAttendees(boolean maximize) {
+    this.maximize_optional_attendees = maximize;
+  }
+
+  /**
+   * Returns whether the meeting should be held when the largest possible weight of optional
+   * attendees can make it.
+   */
+  public boolean isMaximizingOptionalAttendees() {
+    return maximize_optional_attendees;
+  }
+
+  /**
+   * Adds a pool of resources the meeting needs one of, such as the rooms it could be held in. The
+   * meeting can only be held when at least one resource of every pool is free.
+   */
+  public void addResourcePool(Collection<String> resources) {
+    if (resources == null) {
+      throw new IllegalArgumentException("resources cannot be null");
+    }
+
+    if (resources.isEmpty()) {
+      throw new IllegalArgumentException("resources cannot be empty");
+    }
+
+    // Keep the order the resources were given in, without duplicates.
+    resource_pools.add(
+        Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(resources))));
+  }
+
+  /**
+   * Returns a read-only list of the resource pools the meeting needs one resource of each, in the
+   * order they were added.
+   */
+  public List<List<String>> getResourcePools() {
+    // Gson leaves fields that are missing from the JSON null.
+    if (resource_pools == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(resource_pools);
+  }
+
   /**
    * Returns the duration of the meeting in minutes.
    */
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * A group of attendees encoded with the default {@link AttendeeDictionary}, and how long the
+   * encoding holds.
+   */
+  private static final class Encoding {
+    private final AttendeeSet ids;
+
+    // The size of the dictionary when the names were looked up, or -1 if every name was found.
+    private final int dictionarySize;
+
+    private Encoding(AttendeeSet ids, int dictionarySize) {
+      this.ids = ids;
+      this.dictionarySize = dictionarySize;
+    }
+
+    static Encoding of(Collection<String> attendees) {
+      // Gson leaves fields that are missing from the JSON null.
+      if (attendees == null) {
+        return new Encoding(AttendeeSet.EMPTY, -1);
+      }
+
+      AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+      // Read the size first, so that a name added during the lookup makes the encoding stale.
+      int dictionarySize = dictionary.size();
+      AttendeeSet ids = AttendeeSet.lookup(attendees, dictionary);
+      return new Encoding(ids, ids.size() == attendees.size() ? -1 : dictionarySize);
+    }
+
+    /**
+     * Returns whether the names would still encode to the same IDs.
+     */
+    boolean isCurrent() {
+      return dictionarySize < 0 || dictionarySize == AttendeeDictionary.getDefault().size();
+    }
+  }
 }
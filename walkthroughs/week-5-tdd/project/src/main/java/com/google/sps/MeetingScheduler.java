@@ -0,0 +1,162 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * MeetingScheduler places a batch of meetings at once, such as every 1:1 in a team for a week,
+ * without any two of them clashing. Requests are placed greedily in priority order: each one takes
+ * the earliest time {@link FindMeetingQuery} finds on the first day that has one, and is booked
+ * into that day's {@link AvailabilityIndex} straight away, so every later request sees it as busy.
+ * Each placement costs one query and one index update rather than anything per meeting already
+ * placed. Greedy placement can leave a request unplaced that some other order would fit; those
+ * requests are reported rather than dropped. Resource pools in the requests are not assigned.
+ */
+public final class MeetingScheduler {
+  /**
+   * Orders requests so that the hardest to place go first: those with more mandatory attendees,
+   * then the longer ones. Requests that tie keep their order.
+   */
+  public static final Comparator<MeetingRequest> LARGEST_FIRST =
+      Comparator.<MeetingRequest>comparingInt(request -> request.getAttendees().size())
+          .thenComparingLong(MeetingRequest::getDuration)
+          .reversed();
+
+  private static final String TITLE_PREFIX = "Scheduled meeting ";
+
+  private final FindMeetingQuery query;
+
+  /**
+   * Creates a scheduler that finds times with a default {@link FindMeetingQuery}.
+   */
+  public MeetingScheduler() {
+    this(new FindMeetingQuery());
+  }
+
+  /**
+   * Creates a scheduler that finds times with {@code query}, so that, for example, its working
+   * hours are kept to.
+   *
+   * @param query The query that finds the free times on each day. Must be non-null.
+   */
+  public MeetingScheduler(FindMeetingQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+
+    this.query = query;
+  }
+
+  /**
+   * Places the requests in the order given, so earlier requests have priority.
+   *
+   * @see #schedule(List, List, Comparator)
+   */
+  public Schedule schedule(List<AvailabilityIndex> days, List<MeetingRequest> requests) {
+    return schedule(days, requests, (a, b) -> 0);
+  }
+
+  /**
+   * Places each request on the earliest day and time its attendees are free, in priority order,
+   * and books it for its attendees and whichever optional attendees are free then. The meetings are
+   * added to the days' indexes as events, which stay there; remove a meeting's event to undo it.
+   * Each day is locked while a request is placed on it, so other threads can share the indexes, as
+   * long as they also lock a day whenever they book a time they found free on it.
+   *
+   * @param days The calendars of the days to place meetings on, earliest first. Must be non-null.
+   * @param requests The meetings to place. Must be non-null.
+   * @param priority Orders the requests from the first to place to the last. The order is stable,
+   *     so requests it ties keep their order. Must be non-null.
+   * @return the meetings placed, in the order they were placed, and the requests that could not be
+   */
+  public Schedule schedule(
+      List<AvailabilityIndex> days,
+      List<MeetingRequest> requests,
+      Comparator<MeetingRequest> priority) {
+    if (days == null) {
+      throw new IllegalArgumentException("days cannot be null. Use empty list instead.");
+    }
+
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null. Use empty list instead.");
+    }
+
+    if (priority == null) {
+      throw new IllegalArgumentException("priority cannot be null");
+    }
+
+    // Sort positions rather than the requests, so that each meeting's title can name its request.
+    Integer[] order = new Integer[requests.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> priority.compare(requests.get(a), requests.get(b)));
+
+    List<ScheduledMeeting> scheduledMeetings = new ArrayList<>();
+    List<MeetingRequest> unscheduledRequests = new ArrayList<>();
+    for (int position : order) {
+      MeetingRequest request = requests.get(position);
+      ScheduledMeeting meeting = place(days, request, TITLE_PREFIX + position);
+      if (meeting != null) {
+        scheduledMeetings.add(meeting);
+      } else {
+        unscheduledRequests.add(request);
+      }
+    }
+    return new Schedule(scheduledMeetings, unscheduledRequests);
+  }
+
+  /**
+   * Books {@code request} at the earliest time on the first day that has one, or returns null if no
+   * day has a time.
+   */
+  private ScheduledMeeting place(
+      List<AvailabilityIndex> days, MeetingRequest request, String title) {
+    // A meeting that no one attends fits any day, but one longer than a day still never does.
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return null;
+    }
+
+    for (int day = 0; day < days.size(); day++) {
+      AvailabilityIndex index = days.get(day);
+      // The index's own methods take this lock too, so no other change lands between finding the
+      // time and booking it.
+      synchronized (index) {
+        Collection<TimeRange> times = query.query(index, request);
+        if (times.isEmpty()) {
+          continue;
+        }
+
+        int start = times.iterator().next().start();
+        TimeRange when = TimeRange.fromStartDuration(start, (int) request.getDuration());
+        List<String> attendees = new ArrayList<>(request.getAttendees());
+        for (String attendee : request.getOptionalAttendees()) {
+          if (query.isFree(index, attendee, when)) {
+            attendees.add(attendee);
+          }
+        }
+
+        Event event = new Event(title, when, attendees);
+        index.addEvent(event);
+        return new ScheduledMeeting(request, day, event);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.BitSet;
+
+/**
+ * MinuteBitmap marks which minutes of a day are busy, one bit per minute. A whole day is 1440 bits,
+ * which fits in 23 longs, so combining the calendars of many people is a handful of word operations
+ * and free times are found with {@code nextClearBit} and {@code nextSetBit}.
+ *
+ * <p>A range with no duration covers no minutes, but as in the other engines it still splits the
+ * free time around it in two, so the bitmap also remembers where such ranges fall.
+ */
+final class MinuteBitmap {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final BitSet busy;
+
+  // The minutes that ranges with no duration fall on, where free time is split.
+  private final BitSet splits;
+
+  MinuteBitmap() {
+    this(new BitSet(MINUTES_PER_DAY), new BitSet());
+  }
+
+  private MinuteBitmap(BitSet busy, BitSet splits) {
+    this.busy = busy;
+    this.splits = splits;
+  }
+
+  /**
+   * Marks every minute of {@code range} that falls within the day as busy.
+   */
+  void mark(TimeRange range) {
+    mark(range.start(), range.end());
+  }
+
+  /**
+   * Marks every minute of {@code [start, end)} that falls within the day as busy, or, if the range
+   * has no duration, splits the free time at {@code start}.
+   */
+  void mark(int start, int end) {
+    if (start == end) {
+      // Splitting at either end of the day leaves the free time as it is.
+      if (start > TimeRange.START_OF_DAY && start < MINUTES_PER_DAY) {
+        splits.set(start);
+      }
+      return;
+    }
+
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, MINUTES_PER_DAY);
+    if (start < end) {
+      busy.set(start, end);
+    }
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this bitmap too.
+   */
+  void or(MinuteBitmap other) {
+    busy.or(other.busy);
+    splits.or(other.splits);
+  }
+
+  /**
+   * Returns a copy of this bitmap that can be changed without affecting this one.
+   */
+  MinuteBitmap copy() {
+    return new MinuteBitmap((BitSet) busy.clone(), (BitSet) splits.clone());
+  }
+
+  /**
+   * Adds every run of free minutes that is at least {@code duration} minutes long to {@code out},
+   * in chronological order.
+   */
+  void addFreeTimes(IntervalSet out, long duration) {
+    int start = busy.nextClearBit(TimeRange.START_OF_DAY);
+    while (start < MINUTES_PER_DAY) {
+      int end = busy.nextSetBit(start);
+      if (end == -1 || end > MINUTES_PER_DAY) {
+        end = MINUTES_PER_DAY;
+      }
+
+      // Split the run wherever a range with no duration falls inside it.
+      int split = splits.nextSetBit(start + 1);
+      while (split != -1 && split < end) {
+        out.addIfLongEnough(start, split, duration);
+        start = split;
+        split = splits.nextSetBit(start + 1);
+      }
+      out.addIfLongEnough(start, end, duration);
+      start = busy.nextClearBit(end);
+    }
+  }
+}
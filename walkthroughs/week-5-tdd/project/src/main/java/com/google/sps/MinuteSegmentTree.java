@@ -0,0 +1,208 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * MinuteSegmentTree counts how many busy times cover each minute of the day. Adding or removing a
+ * busy time is a range-add of +1 or -1 in O(log n), and the free minutes are the ones with a count
+ * of zero.
+ *
+ * <p>Every node keeps the smallest count in its range together with the length of the run of that
+ * smallest count at its start, at its end and anywhere inside it. Adding to a whole node shifts its
+ * smallest count but leaves the runs as they are, so additions are never pushed down to children.
+ * A node whose smallest count is zero therefore knows its longest free run, and the free runs of at
+ * least {@code d} minutes can be listed without visiting nodes whose inner runs are all shorter.
+ */
+final class MinuteSegmentTree {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  // Amount added to every minute of a node's range that was not pushed to its children.
+  private final int[] added;
+
+  // The smallest count in a node's range, including what was added to the node itself.
+  private final int[] min;
+
+  // Lengths of the runs of the smallest count at the start and end of a node and anywhere in it.
+  private final int[] prefix;
+  private final int[] suffix;
+  private final int[] longest;
+
+  MinuteSegmentTree() {
+    int nodes = 4 * MINUTES_PER_DAY;
+    added = new int[nodes];
+    min = new int[nodes];
+    prefix = new int[nodes];
+    suffix = new int[nodes];
+    longest = new int[nodes];
+    build(1, 0, MINUTES_PER_DAY);
+  }
+
+  /**
+   * Adds {@code delta} to the count of every minute of {@code [start, end)} that falls within the
+   * day. Counts must never drop below zero.
+   */
+  void add(int start, int end, int delta) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, MINUTES_PER_DAY);
+    if (start < end) {
+      add(1, 0, MINUTES_PER_DAY, start, end, delta);
+    }
+  }
+
+  /**
+   * Returns the length of the longest run of free minutes, or zero if every minute is busy.
+   */
+  int getLongestFreeRun() {
+    return min[1] == 0 ? longest[1] : 0;
+  }
+
+  /**
+   * Adds every run of free minutes that is at least {@code duration} minutes long to {@code out},
+   * in chronological order.
+   */
+  void addFreeTimes(IntervalSet out, long duration) {
+    RunCollector runs = new RunCollector(out, Math.max(duration, 1), true);
+    collect(1, 0, MINUTES_PER_DAY, 0, runs);
+    runs.close(MINUTES_PER_DAY);
+  }
+
+  /**
+   * Adds every run of busy minutes to {@code out}, in chronological order. The runs are merged, so
+   * no two of them overlap or touch.
+   */
+  void addBusyTimes(IntervalSet out) {
+    RunCollector runs = new RunCollector(out, 1, false);
+    collect(1, 0, MINUTES_PER_DAY, 0, runs);
+    runs.close(MINUTES_PER_DAY);
+  }
+
+  private void build(int node, int start, int end) {
+    prefix[node] = suffix[node] = longest[node] = end - start;
+    if (end - start > 1) {
+      int mid = (start + end) >>> 1;
+      build(2 * node, start, mid);
+      build(2 * node + 1, mid, end);
+    }
+  }
+
+  private void add(int node, int start, int end, int addStart, int addEnd, int delta) {
+    if (addEnd <= start || end <= addStart) {
+      return;
+    }
+
+    if (addStart <= start && end <= addEnd) {
+      added[node] += delta;
+      min[node] += delta;
+      return;
+    }
+
+    int mid = (start + end) >>> 1;
+    add(2 * node, start, mid, addStart, addEnd, delta);
+    add(2 * node + 1, mid, end, addStart, addEnd, delta);
+    pull(node, mid - start, end - mid);
+  }
+
+  /**
+   * Recomputes a node from its children, which cover {@code leftLength} and {@code rightLength}
+   * minutes.
+   */
+  private void pull(int node, int leftLength, int rightLength) {
+    int left = 2 * node;
+    int right = 2 * node + 1;
+    int smallest = Math.min(min[left], min[right]);
+
+    // Runs of a child only count if the child reaches the smallest count of the two.
+    int leftPrefix = min[left] == smallest ? prefix[left] : 0;
+    int leftSuffix = min[left] == smallest ? suffix[left] : 0;
+    int leftLongest = min[left] == smallest ? longest[left] : 0;
+    int rightPrefix = min[right] == smallest ? prefix[right] : 0;
+    int rightSuffix = min[right] == smallest ? suffix[right] : 0;
+    int rightLongest = min[right] == smallest ? longest[right] : 0;
+
+    min[node] = smallest + added[node];
+    prefix[node] = leftPrefix == leftLength ? leftLength + rightPrefix : leftPrefix;
+    suffix[node] = rightSuffix == rightLength ? rightLength + leftSuffix : rightSuffix;
+    longest[node] = Math.max(Math.max(leftLongest, rightLongest), leftSuffix + rightPrefix);
+  }
+
+  /**
+   * Walks the minutes of a node in order, telling {@code runs} where the free and busy minutes are.
+   *
+   * @param above the amount added to the node's ancestors, which still applies to the node
+   */
+  private void collect(int node, int start, int end, int above, RunCollector runs) {
+    int length = end - start;
+    if (min[node] + above > 0) {
+      runs.busy(start, end);
+    } else if (prefix[node] == length) {
+      runs.free(start, end);
+    } else if (runs.wantsFree && longest[node] < runs.minLength) {
+      // No run inside the node is long enough, so only the runs touching its edges can matter.
+      runs.free(start, start + prefix[node]);
+      runs.busy(start + prefix[node], end - suffix[node]);
+      runs.free(end - suffix[node], end);
+    } else {
+      int mid = (start + end) >>> 1;
+      collect(2 * node, start, mid, above + added[node], runs);
+      collect(2 * node + 1, mid, end, above + added[node], runs);
+    }
+  }
+
+  /**
+   * Joins the free and busy pieces reported in chronological order into runs, and keeps the runs
+   * of one kind that are long enough.
+   */
+  private static final class RunCollector {
+    private final IntervalSet out;
+    private final long minLength;
+    private final boolean wantsFree;
+
+    // Start of the current run of the wanted kind, or -1 if the last piece was the other kind.
+    private int runStart = -1;
+
+    private RunCollector(IntervalSet out, long minLength, boolean wantsFree) {
+      this.out = out;
+      this.minLength = minLength;
+      this.wantsFree = wantsFree;
+    }
+
+    private void free(int start, int end) {
+      piece(start, end, wantsFree);
+    }
+
+    private void busy(int start, int end) {
+      piece(start, end, !wantsFree);
+    }
+
+    private void piece(int start, int end, boolean wanted) {
+      if (start >= end) {
+        return;
+      }
+
+      if (!wanted) {
+        close(start);
+      } else if (runStart < 0) {
+        runStart = start;
+      }
+    }
+
+    private void close(int end) {
+      if (runStart >= 0) {
+        out.addIfLongEnough(runStart, end, minLength);
+        runStart = -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,187 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * OptionalAttendeeSweep finds the times where the largest possible weight of optional attendees can
+ * make a meeting, using a counting sweep rather than trying subsets of attendees.
+ *
+ * <p>The sweep works over meeting start times. A meeting starting at {@code t} clashes with a busy
+ * time {@code [s, e)} exactly when {@code s - duration < t < e}, so every busy time is widened into
+ * the range of start times it rules out. Each attendee's widened ranges are merged so they are only
+ * counted once, and their endpoints are turned into {@code +weight} and {@code -weight} steps.
+ * After one sort of the steps, a single pass gives the weight of optional attendees that would miss
+ * a meeting starting at any minute.
+ */
+final class OptionalAttendeeSweep {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final int duration;
+
+  // Each step packs a start time into the high 32 bits and a weight change into the low 32 bits, so
+  // that sorting the longs sorts the steps by start time.
+  private long[] steps = new long[16];
+  private int stepCount;
+
+  private long totalWeight;
+
+  /**
+   * Creates a sweep for a meeting of {@code duration} minutes, which must be within a day.
+   */
+  OptionalAttendeeSweep(long duration) {
+    if (duration > MINUTES_PER_DAY) {
+      throw new IllegalArgumentException("duration cannot be longer than a day");
+    }
+
+    this.duration = (int) Math.max(duration, 1);
+  }
+
+  /**
+   * Adds an optional attendee and the times they are busy.
+   *
+   * @param busyTimes the times the attendee is busy, sorted by start time
+   * @param weight how much the attendee counts, must be positive
+   */
+  void addOptionalAttendee(IntervalSet busyTimes, int weight) {
+    totalWeight += weight;
+
+    int clashStart = -1;
+    int clashEnd = -1;
+    for (int i = 0; i < busyTimes.size(); i++) {
+      // A busy time with no duration does not overlap any meeting.
+      if (busyTimes.end(i) <= busyTimes.start(i)) {
+        continue;
+      }
+
+      int start = Math.max(busyTimes.start(i) - duration + 1, TimeRange.START_OF_DAY);
+      int end = Math.min(busyTimes.end(i), MINUTES_PER_DAY);
+      if (start >= end) {
+        continue;
+      }
+
+      if (start <= clashEnd) {
+        clashEnd = Math.max(clashEnd, end);
+      } else {
+        addClash(clashStart, clashEnd, weight);
+        clashStart = start;
+        clashEnd = end;
+      }
+    }
+    addClash(clashStart, clashEnd, weight);
+  }
+
+  /**
+   * Returns the times where the mandatory attendees are free and the weight of optional attendees
+   * who are free too is as large as possible. Several slots may be returned, and slots can overlap
+   * when different optional attendees are free in each of them.
+   *
+   * @param mandatoryFreeTimes the times the mandatory attendees are free, in chronological order
+   * @param hasMandatoryAttendees whether there are mandatory attendees. Without them a slot nobody
+   *     can make is not worth returning.
+   * @return the best slots in chronological order
+   */
+  IntervalSet findBestTimes(IntervalSet mandatoryFreeTimes, boolean hasMandatoryAttendees) {
+    Arrays.sort(steps, 0, stepCount);
+
+    // Start times where the missed weight changes, and the missed weight from there on.
+    int[] changes = new int[stepCount + 1];
+    long[] missedWeights = new long[stepCount + 1];
+    int changeCount = 1;
+    long missedWeight = 0;
+    for (int i = 0; i < stepCount; i++) {
+      int time = (int) (steps[i] >>> 32);
+      missedWeight += (int) steps[i];
+      if (changes[changeCount - 1] == time) {
+        missedWeights[changeCount - 1] = missedWeight;
+      } else {
+        changes[changeCount] = time;
+        missedWeights[changeCount] = missedWeight;
+        changeCount++;
+      }
+    }
+
+    // Walk the start times the mandatory attendees allow, remembering each piece with a constant
+    // missed weight.
+    IntervalSet pieces = new IntervalSet(mandatoryFreeTimes.size() + changeCount);
+    long[] pieceWeights = new long[mandatoryFreeTimes.size() + changeCount];
+    long leastMissed = Long.MAX_VALUE;
+    int change = 0;
+    for (int i = 0; i < mandatoryFreeTimes.size(); i++) {
+      int time = mandatoryFreeTimes.start(i);
+      int lastStart = mandatoryFreeTimes.end(i) - duration + 1;
+      while (change + 1 < changeCount && changes[change + 1] <= time) {
+        change++;
+      }
+
+      while (time < lastStart) {
+        int next = lastStart;
+        if (change + 1 < changeCount && changes[change + 1] < lastStart) {
+          next = changes[change + 1];
+        }
+        pieceWeights[pieces.size()] = missedWeights[change];
+        pieces.add(time, next);
+        leastMissed = Math.min(leastMissed, missedWeights[change]);
+
+        time = next;
+        if (change + 1 < changeCount && changes[change + 1] == time) {
+          change++;
+        }
+      }
+    }
+
+    IntervalSet bestTimes = new IntervalSet();
+    if (pieces.isEmpty() || (!hasMandatoryAttendees && leastMissed == totalWeight)) {
+      return bestTimes;
+    }
+
+    // Join touching pieces with the least missed weight, then turn the start times back into
+    // meeting times.
+    int runStart = -1;
+    int runEnd = -1;
+    for (int i = 0; i < pieces.size(); i++) {
+      if (pieceWeights[i] != leastMissed) {
+        continue;
+      }
+
+      if (pieces.start(i) != runEnd) {
+        addRun(bestTimes, runStart, runEnd);
+        runStart = pieces.start(i);
+      }
+      runEnd = pieces.end(i);
+    }
+    addRun(bestTimes, runStart, runEnd);
+    return bestTimes;
+  }
+
+  private void addClash(int start, int end, int weight) {
+    if (start < 0) {
+      return;
+    }
+
+    if (stepCount + 2 > steps.length) {
+      steps = Arrays.copyOf(steps, steps.length * 2);
+    }
+    steps[stepCount++] = ((long) start << 32) | (weight & 0xFFFFFFFFL);
+    steps[stepCount++] = ((long) end << 32) | (-weight & 0xFFFFFFFFL);
+  }
+
+  private void addRun(IntervalSet bestTimes, int runStart, int runEnd) {
+    if (runStart >= 0) {
+      bestTimes.add(runStart, runEnd - 1 + duration);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * QueryMetrics records how long each phase of a {@link FindMeetingQuery} takes and how much work
+ * it did, in {@link Histogram}s, so that a slow query can be traced to the phase it spent its time
+ * in. Only one in every {@code sampleEvery} queries is measured, chosen at random, which keeps the
+ * cost low enough to leave on; queries that are not sampled never read the clock. The metrics are
+ * safe to share between threads and queries.
+ */
+public final class QueryMetrics {
+  /** A phase of answering a query. */
+  public enum Phase {
+    /** Reading the events or index for the times the attendees are busy. */
+    COLLECT,
+    /** Sorting the busy times. */
+    SORT,
+    /** Finding the gaps between busy times, including optional attendees. */
+    GAPS,
+    /** Falling back to the gaps of the mandatory attendees alone. */
+    FALLBACK,
+    /** The whole query. */
+    TOTAL
+  }
+
+  /** A measure of how much work a query did. */
+  public enum Size {
+    /** Events, or busy times read from an index, that were looked at. */
+    EVENTS_SCANNED,
+    /** Busy times of the attendees that had to be swept. */
+    BLOCKED_INTERVALS,
+    /** Gaps that were long enough, with and without optional attendees. */
+    CANDIDATE_GAPS
+  }
+
+  private final int sampleEvery;
+  private final Map<Phase, Histogram> latencies = new EnumMap<>(Phase.class);
+  private final Map<Size, Histogram> sizes = new EnumMap<>(Size.class);
+
+  /**
+   * Creates metrics that measure one query in every {@code sampleEvery}, or none if it is 0.
+   */
+  public QueryMetrics(int sampleEvery) {
+    if (sampleEvery < 0) {
+      throw new IllegalArgumentException("sampleEvery cannot be negative");
+    }
+
+    this.sampleEvery = sampleEvery;
+    for (Phase phase : Phase.values()) {
+      latencies.put(phase, new Histogram());
+    }
+    for (Size size : Size.values()) {
+      sizes.put(size, new Histogram());
+    }
+  }
+
+  /**
+   * Returns the number of queries each sample stands for, or 0 if nothing is sampled.
+   */
+  public int getSampleEvery() {
+    return sampleEvery;
+  }
+
+  /**
+   * Returns the nanoseconds the sampled queries spent in {@code phase}. Phases a query skipped are
+   * not recorded for it.
+   */
+  public Histogram getLatency(Phase phase) {
+    return latencies.get(phase);
+  }
+
+  /**
+   * Returns the sizes of the sampled queries' workloads.
+   */
+  public Histogram getSize(Size size) {
+    return sizes.get(size);
+  }
+
+  /**
+   * Starts measuring a query if it is chosen for sampling, and otherwise returns a sample that
+   * records nothing.
+   */
+  Sample startSample() {
+    if (sampleEvery == 0
+        || (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0)) {
+      return Sample.NONE;
+    }
+    return new Sample(this);
+  }
+
+  /**
+   * The measurements of one query. Phases are timed back to back: each one ends where the one
+   * before it ended.
+   */
+  static final class Sample {
+    /** A sample for a query that is not measured. */
+    static final Sample NONE = new Sample(null);
+
+    private final QueryMetrics metrics;
+    private final long start;
+    private long lastMark;
+
+    private Sample(QueryMetrics metrics) {
+      this.metrics = metrics;
+      this.start = metrics == null ? 0 : System.nanoTime();
+      this.lastMark = start;
+    }
+
+    /**
+     * Records the time since the previous phase ended, or since the query started, as
+     * {@code phase}.
+     */
+    void endPhase(Phase phase) {
+      if (metrics != null) {
+        long now = System.nanoTime();
+        metrics.latencies.get(phase).record(now - lastMark);
+        lastMark = now;
+      }
+    }
+
+    /**
+     * Records the size of part of the query's workload.
+     */
+    void recordSize(Size size, long value) {
+      if (metrics != null) {
+        metrics.sizes.get(size).record(value);
+      }
+    }
+
+    /**
+     * Records the time since the query started as its total.
+     */
+    void finish() {
+      if (metrics != null) {
+        metrics.latencies.get(Phase.TOTAL).record(System.nanoTime() - start);
+      }
+    }
+  }
+}
@@ -0,0 +1,219 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * QueryResultCache remembers the answers to meeting requests against one version of the events.
+ * Requests are compared by a canonical form, so the same attendees listed in a different order, or
+ * sent by a different client, share an answer. An answer is only used for the version it was
+ * computed from. When several threads miss on the same request at once, only the first computes
+ * the answer and the others wait for it. The least recently used answers are evicted once the
+ * cache is full. The cache is safe to share between threads.
+ *
+ * @param <V> the type of the cached answers, which must not be modified once cached
+ */
+public final class QueryResultCache<V> {
+  private final int maxEntries;
+
+  // Request and version to the answer, or to the answer being computed, ordered from least to most
+  // recently used.
+  private final LinkedHashMap<Key, CompletableFuture<V>> entries;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * Creates a cache that holds the answers to at most {@code maxEntries} requests.
+   */
+  public QueryResultCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<Key, CompletableFuture<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<V>> eldest) {
+        return size() > QueryResultCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the answer to {@code request} against the events at {@code version}, calling
+   * {@code compute} only if no answer is cached or being computed. If {@code compute} throws, the
+   * exception is passed on to every caller waiting for the answer and nothing is cached.
+   */
+  public V get(MeetingRequest request, long version, Supplier<V> compute) {
+    Key key = new Key(canonicalForm(request), version);
+    CompletableFuture<V> found;
+    CompletableFuture<V> answer = new CompletableFuture<>();
+    synchronized (this) {
+      found = entries.get(key);
+      if (found != null) {
+        hits++;
+      } else {
+        misses++;
+        entries.put(key, answer);
+      }
+    }
+    if (found != null) {
+      return join(found);
+    }
+
+    // Compute outside the lock so other requests can be looked up in the meantime.
+    try {
+      V value = compute.get();
+      answer.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      synchronized (this) {
+        entries.remove(key, answer);
+      }
+      answer.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the cached answer to {@code request} against the events at {@code version}, or null if
+   * it is not cached or is still being computed. Nothing is computed or waited for.
+   */
+  public V getIfPresent(MeetingRequest request, long version) {
+    CompletableFuture<V> found;
+    synchronized (this) {
+      found = entries.get(new Key(canonicalForm(request), version));
+      if (found != null && found.isDone() && !found.isCompletedExceptionally()) {
+        hits++;
+      } else {
+        misses++;
+        return null;
+      }
+    }
+    return found.join();
+  }
+
+  /**
+   * Returns the number of requests whose answers are cached or being computed.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the number of lookups that were answered from the cache, including those that waited
+   * for another thread to compute the answer.
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that had to compute the answer.
+   */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Returns the share of lookups that were answered from the cache, or 0 before the first lookup.
+   */
+  public synchronized double getHitRatio() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /**
+   * Returns the parts of a request that decide its answer, with the attendees sorted so that the
+   * order they were added in does not matter.
+   */
+  static List<Object> canonicalForm(MeetingRequest request) {
+    List<String> attendees = new ArrayList<>(request.getAttendees());
+    Collections.sort(attendees);
+
+    List<String> optionalAttendees = new ArrayList<>(request.getOptionalAttendees());
+    Collections.sort(optionalAttendees);
+
+    // Weights only matter when maximizing optional attendees.
+    List<Integer> weights = new ArrayList<>(optionalAttendees.size());
+    if (request.isMaximizingOptionalAttendees()) {
+      for (String attendee : optionalAttendees) {
+        weights.add(request.getOptionalAttendeeWeight(attendee));
+      }
+    }
+
+    // The order of the pools and of the resources in them decides which resources are assigned,
+    // so it is kept. The pools are copied, as the request can still be changed once it is a key.
+    List<List<String>> resourcePools = new ArrayList<>(request.getResourcePools().size());
+    for (List<String> pool : request.getResourcePools()) {
+      resourcePools.add(new ArrayList<>(pool));
+    }
+
+    return Arrays.asList(
+        attendees,
+        optionalAttendees,
+        request.getDuration(),
+        request.isMaximizingOptionalAttendees(),
+        weights,
+        resourcePools);
+  }
+
+  private static <V> V join(CompletableFuture<V> answer) {
+    try {
+      return answer.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  private static final class Key {
+    private final List<Object> request;
+    private final long version;
+
+    private Key(List<Object> request, long version) {
+      this.request = request;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key
+          && ((Key) other).version == version
+          && ((Key) other).request.equals(request);
+    }
+
+    @Override
+    public int hashCode() {
+      return request.hashCode() * 31 + Long.hashCode(version);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RecurringEvent is a meeting that repeats every few days, such as a daily stand-up or a weekly
+ * review, with the occurrences on some days skipped. Occurrences are never stored; they are worked
+ * out on demand for a window of time, so looking at one day or one week of a long series only
+ * costs as much as the occurrences in it. Recurring events are considered read-only.
+ */
+public final class RecurringEvent {
+  /** The interval of an event that happens every day. */
+  public static final int DAILY = 1;
+
+  /** The interval of an event that happens every week. */
+  public static final int WEEKLY = 7;
+
+  /** The end of a series that repeats forever. */
+  public static final long FOREVER = Long.MAX_VALUE;
+
+  private final String title;
+  private final EpochTimeRange first;
+  private final int intervalDays;
+  private final long until;
+  private final Set<Long> exceptionDays = new HashSet<>();
+  private final Set<String> attendees = new HashSet<>();
+
+  /**
+   * Creates a new recurring event that repeats forever without exceptions.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null.
+   * @param intervalDays The number of days from one occurrence to the next. Must be positive.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public RecurringEvent(
+      String title, EpochTimeRange first, int intervalDays, Collection<String> attendees) {
+    this(title, first, intervalDays, FOREVER, Collections.emptySet(), attendees);
+  }
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null.
+   * @param intervalDays The number of days from one occurrence to the next. Must be positive.
+   * @param until No occurrence starts at or after this time, in minutes since the epoch. Use
+   *     {@link #FOREVER} for a series without an end.
+   * @param exceptionDays The days whose occurrence is skipped, as days since the epoch in UTC of
+   *     the occurrence's start. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public RecurringEvent(
+      String title,
+      EpochTimeRange first,
+      int intervalDays,
+      long until,
+      Collection<Long> exceptionDays,
+      Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("intervalDays must be positive");
+    }
+
+    if (exceptionDays == null) {
+      throw new IllegalArgumentException("exceptionDays cannot be null. Use empty array instead.");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.intervalDays = intervalDays;
+    this.until = until;
+    this.exceptionDays.addAll(exceptionDays);
+    this.attendees.addAll(attendees);
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the time of the first occurrence.
+   */
+  public EpochTimeRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the number of days from one occurrence to the next.
+   */
+  public int getIntervalDays() {
+    return intervalDays;
+  }
+
+  /**
+   * Returns the time no occurrence starts at or after, or {@link #FOREVER}.
+   */
+  public long getUntil() {
+    return until;
+  }
+
+  /**
+   * Returns a read-only set of the days whose occurrence is skipped.
+   */
+  public Set<Long> getExceptionDays() {
+    return Collections.unmodifiableSet(exceptionDays);
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, in chronological order. Occurrences
+   * before the window are skipped with arithmetic rather than walked, so the cost depends only on
+   * the number of occurrences returned.
+   */
+  public List<EpochTimeRange> getOccurrences(EpochTimeRange window) {
+    List<EpochTimeRange> occurrences = new ArrayList<>();
+    long period = intervalDays * EpochTimeRange.MINUTES_PER_DAY;
+
+    // The first occurrence that ends after the window starts.
+    long index = Math.max(0, Math.floorDiv(window.start() - first.end(), period) + 1);
+    for (long start = first.start() + index * period;
+        start < window.end() && start < until;
+        start += period) {
+      if (!exceptionDays.contains(Math.floorDiv(start, EpochTimeRange.MINUTES_PER_DAY))) {
+        occurrences.add(EpochTimeRange.fromStartDuration(start, first.duration()));
+      }
+    }
+    return occurrences;
+  }
+
+  /**
+   * Returns an event for every occurrence on the given day, where {@code epochDay} counts days
+   * since the epoch in UTC. Occurrences that run into the day from the day before, or on into the
+   * next day, are cut off at midnight.
+   */
+  public List<Event> getEventsOn(long epochDay) {
+    long dayStart = epochDay * EpochTimeRange.MINUTES_PER_DAY;
+    EpochTimeRange day = EpochTimeRange.fromStartDuration(dayStart, EpochTimeRange.MINUTES_PER_DAY);
+
+    List<Event> events = new ArrayList<>();
+    for (EpochTimeRange occurrence : getOccurrences(day)) {
+      int start = (int) (Math.max(occurrence.start(), day.start()) - dayStart);
+      int end = (int) (Math.min(occurrence.end(), day.end()) - dayStart);
+      events.add(new Event(title, TimeRange.fromStartEnd(start, end, false), attendees));
+    }
+    return events;
+  }
+}
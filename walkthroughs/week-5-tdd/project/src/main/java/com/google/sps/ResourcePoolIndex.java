@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The free times of a pool of interchangeable resources, such as rooms, for meetings of one
+ * duration. Every free time of every resource that is long enough is kept with the resource it
+ * belongs to, except free times that lie inside a longer free time of another resource, since the
+ * longer one can always be assigned instead. What is left is sorted by both start and end, so
+ * candidate slots can be matched against the whole pool in one pass instead of against each
+ * resource in turn.
+ */
+final class ResourcePoolIndex {
+  private static final Comparator<ResourceSlot> BY_START_THEN_LONGEST =
+      Comparator.comparingLong((ResourceSlot slot) -> slot.getWhen().start())
+          .thenComparing(slot -> -slot.getWhen().end());
+
+  private final List<String> resources;
+  private final long duration;
+
+  // Free times of the pool with strictly increasing starts and ends. owners[i] is the index of the
+  // resource in resources that is free during freeTimes.start(i) to freeTimes.end(i).
+  private final IntervalSet freeTimes;
+  private final int[] owners;
+
+  private ResourcePoolIndex(
+      List<String> resources, long duration, IntervalSet freeTimes, int[] owners) {
+    this.resources = resources;
+    this.duration = duration;
+    this.freeTimes = freeTimes;
+    this.owners = owners;
+  }
+
+  /**
+   * Indexes a pool of resources.
+   *
+   * @param resources the resources in the pool
+   * @param busyTimes the busy times of each resource, in the same order, each sorted by start time
+   * @param duration the length of the meetings the pool is searched for, in minutes
+   */
+  static ResourcePoolIndex of(List<String> resources, List<IntervalSet> busyTimes, long duration) {
+    if (resources.size() != busyTimes.size()) {
+      throw new IllegalArgumentException("each resource needs its busy times");
+    }
+
+    // Pack each free time with its owner so one primitive sort orders them by start time and,
+    // for the same start, the longest first.
+    int count = 0;
+    IntervalSet[] resourceFreeTimes = new IntervalSet[resources.size()];
+    for (int resource = 0; resource < resources.size(); resource++) {
+      resourceFreeTimes[resource] =
+          busyTimes.get(resource).gaps(TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end(), duration);
+      count += resourceFreeTimes[resource].size();
+    }
+    long[] packed = new long[count];
+    int next = 0;
+    for (int resource = 0; resource < resources.size(); resource++) {
+      IntervalSet free = resourceFreeTimes[resource];
+      for (int i = 0; i < free.size(); i++) {
+        packed[next++] =
+            ((long) free.start(i) << 42) | ((long) (0x7FF - free.end(i)) << 31) | resource;
+      }
+    }
+    Arrays.sort(packed);
+
+    IntervalSet freeTimes = new IntervalSet(count);
+    int[] owners = new int[count];
+    int latestEnd = Integer.MIN_VALUE;
+    for (long key : packed) {
+      int start = (int) (key >>> 42);
+      int end = 0x7FF - (int) ((key >>> 31) & 0x7FF);
+      if (end > latestEnd) {
+        owners[freeTimes.size()] = (int) (key & 0x7FFFFFFF);
+        freeTimes.add(start, end);
+        latestEnd = end;
+      }
+    }
+    return new ResourcePoolIndex(resources, duration, freeTimes, owners);
+  }
+
+  /**
+   * Returns the parts of the given slots during which a resource of this pool is free, each with
+   * that resource assigned. Parts shorter than the meeting are dropped, as are parts that lie
+   * inside a longer part.
+   *
+   * @param slots slots with strictly increasing starts and ends
+   * @return slots with strictly increasing starts and ends
+   */
+  List<ResourceSlot> assign(List<ResourceSlot> slots) {
+    List<ResourceSlot> assigned = new ArrayList<>();
+    int first = 0;
+    for (ResourceSlot slot : slots) {
+      int start = slot.getWhen().start();
+      int end = slot.getWhen().end();
+
+      // The free times end in increasing order, so the ones that end before this slot starts
+      // also end before every later slot starts.
+      while (first < freeTimes.size() && freeTimes.end(first) <= start) {
+        first++;
+      }
+      for (int i = first; i < freeTimes.size() && freeTimes.start(i) < end; i++) {
+        int partStart = Math.max(start, freeTimes.start(i));
+        int partEnd = Math.min(end, freeTimes.end(i));
+        if (partEnd - partStart >= duration) {
+          assigned.add(
+              slot.withResource(
+                  TimeRange.fromStartEnd(partStart, partEnd, false), resources.get(owners[i])));
+        }
+      }
+    }
+    return withoutNestedSlots(assigned);
+  }
+
+  /**
+   * Sorts the slots by start time and drops every slot that lies inside another one.
+   */
+  static List<ResourceSlot> withoutNestedSlots(List<ResourceSlot> slots) {
+    slots.sort(BY_START_THEN_LONGEST);
+    List<ResourceSlot> kept = new ArrayList<>(slots.size());
+    int latestEnd = Integer.MIN_VALUE;
+    for (ResourceSlot slot : slots) {
+      if (slot.getWhen().end() > latestEnd) {
+        kept.add(slot);
+        latestEnd = slot.getWhen().end();
+      }
+    }
+    return kept;
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A time when the attendees of a meeting are free, together with one free resource from each of
+ * the meeting's resource pools. The resources stay free for the whole time, so the meeting can be
+ * held anywhere inside it. Slots are considered read-only.
+ */
+public final class ResourceSlot {
+  private final TimeRange when;
+  private final List<String> resources;
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The time when the attendees and resources are free. Must be non-null.
+   * @param resources The resource assigned from each pool, in the order the pools were added to
+   *     the request. Must be non-null.
+   */
+  public ResourceSlot(TimeRange when, List<String> resources) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (resources == null) {
+      throw new IllegalArgumentException("resources cannot be null. Use empty list instead.");
+    }
+
+    this.when = when;
+    this.resources = Collections.unmodifiableList(new ArrayList<>(resources));
+  }
+
+  /**
+   * Returns the {@code TimeRange} when the attendees and the assigned resources are free.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only list with the resource assigned from each pool, in the order the pools
+   * were added to the request.
+   */
+  public List<String> getResources() {
+    return resources;
+  }
+
+  /**
+   * Returns a slot for {@code when} with {@code resource} assigned after this slot's resources.
+   */
+  ResourceSlot withResource(TimeRange when, String resource) {
+    List<String> assigned = new ArrayList<>(resources.size() + 1);
+    assigned.addAll(resources);
+    assigned.add(resource);
+    return new ResourceSlot(when, assigned);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ResourceSlot && equals(this, (ResourceSlot) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() ^ resources.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Slot: %s with %s", when, resources);
+  }
+
+  private static boolean equals(ResourceSlot a, ResourceSlot b) {
+    return a.when.equals(b.when) && a.resources.equals(b.resources);
+  }
+}
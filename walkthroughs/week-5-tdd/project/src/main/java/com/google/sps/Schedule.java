@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of scheduling a batch of meetings with {@link MeetingScheduler}: the meetings that
+ * were placed and the requests that could not be. Schedules are considered read-only.
+ */
+public final class Schedule {
+  private final List<ScheduledMeeting> scheduledMeetings;
+  private final List<MeetingRequest> unscheduledRequests;
+
+  /**
+   * Creates a new schedule.
+   *
+   * @param scheduledMeetings The meetings that were placed, in the order they were placed. Must be
+   *     non-null.
+   * @param unscheduledRequests The requests that could not be placed, in the order they were tried.
+   *     Must be non-null.
+   */
+  public Schedule(
+      List<ScheduledMeeting> scheduledMeetings, List<MeetingRequest> unscheduledRequests) {
+    if (scheduledMeetings == null) {
+      throw new IllegalArgumentException(
+          "scheduledMeetings cannot be null. Use empty list instead.");
+    }
+
+    if (unscheduledRequests == null) {
+      throw new IllegalArgumentException(
+          "unscheduledRequests cannot be null. Use empty list instead.");
+    }
+
+    this.scheduledMeetings = Collections.unmodifiableList(new ArrayList<>(scheduledMeetings));
+    this.unscheduledRequests = Collections.unmodifiableList(new ArrayList<>(unscheduledRequests));
+  }
+
+  /**
+   * Returns a read-only list of the meetings that were placed, in the order they were placed.
+   */
+  public List<ScheduledMeeting> getScheduledMeetings() {
+    return scheduledMeetings;
+  }
+
+  /**
+   * Returns a read-only list of the requests that could not be placed, in the order they were
+   * tried.
+   */
+  public List<MeetingRequest> getUnscheduledRequests() {
+    return unscheduledRequests;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "Schedule: %s, unscheduled %d", scheduledMeetings, unscheduledRequests.size());
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps;
+
+/**
+ * A meeting that {@link MeetingScheduler} has placed: the request, the day it was placed on and the
+ * event that was added to that day's calendar. The event's attendees are the people it was booked
+ * for, which are the request's attendees and the optional attendees who were free. Scheduled
+ * meetings are considered read-only.
+ */
+public final class ScheduledMeeting {
+  private final MeetingRequest request;
+  private final int day;
+  private final Event event;
+
+  /**
+   * Creates a new scheduled meeting.
+   *
+   * @param request The request that was placed. Must be non-null.
+   * @param day The position of the day the meeting was placed on in the scheduler's days.
+   * @param event The event booked for the meeting. Must be non-null.
+   */
+  public ScheduledMeeting(MeetingRequest request, int day, Event event) {
+    if (request == null) {
+      throw new IllegalArgumentException("request cannot be null");
+    }
+
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    this.request = request;
+    this.day = day;
+    this.event = event;
+  }
+
+  /**
+   * Returns the request that was placed.
+   */
+  public MeetingRequest getRequest() {
+    return request;
+  }
+
+  /**
+   * Returns the position of the day the meeting was placed on in the scheduler's days.
+   */
+  public int getDay() {
+    return day;
+  }
+
+  /**
+   * Returns the event that was added to the day's calendar, which can be removed again to undo the
+   * booking.
+   */
+  public Event getEvent() {
+    return event;
+  }
+
+  /**
+   * Returns the {@code TimeRange} of the meeting.
+   */
+  public TimeRange getWhen() {
+    return event.getWhen();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Meeting: day %d, %s with %s", day, event.getWhen(), event.getAttendees());
+  }
+}
@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WorkingHours holds the part of each day that people can be booked in, such as 9:00 to 17:00 in
+ * their own time zone. Each window is compiled once into masks over the UTC day that
+ * {@link TimeRange} counts minutes in, so a search can block out-of-hours time like any other busy
+ * time rather than filtering its answers afterwards. Offsets are fixed, so a change to or from
+ * daylight saving time needs new working hours. People without working hours are available all
+ * day. Working hours are considered read-only; {@link #with} returns a copy.
+ */
+public final class WorkingHours {
+  /** Working hours in which everyone is available all day. */
+  public static final WorkingHours NONE = new WorkingHours(Collections.emptyMap());
+
+  private static final IntervalSet NO_TIMES = new IntervalSet(0);
+  private static final String OFF_HOURS_TITLE = "Outside working hours";
+
+  private final Map<String, Mask> masks;
+
+  private WorkingHours(Map<String, Mask> masks) {
+    this.masks = masks;
+  }
+
+  /**
+   * Returns a copy of these working hours in which {@code attendee} works from {@code start} to
+   * {@code end} in their own time zone, replacing any hours they had before.
+   *
+   * @param attendee The person whose hours these are. Must be non-null.
+   * @param start The minute of the local day the person starts working, from 0 to 1439.
+   * @param end The minute of the local day the person stops working, from 1 to 1440. An end
+   *     before the start means the hours run past local midnight. Must not equal the start.
+   * @param utcOffset The minutes the person's time zone is ahead of UTC, such as -300 for 05:00
+   *     behind. Must be within a day either way.
+   */
+  public WorkingHours with(String attendee, int start, int end, int utcOffset) {
+    if (attendee == null) {
+      throw new IllegalArgumentException("attendee cannot be null");
+    }
+
+    int minutesPerDay = TimeRange.WHOLE_DAY.duration();
+    if (start < 0 || start >= minutesPerDay || end <= 0 || end > minutesPerDay) {
+      throw new IllegalArgumentException("start and end must be within the day");
+    }
+
+    if (start == end) {
+      throw new IllegalArgumentException("start and end cannot be equal");
+    }
+
+    if (Math.abs(utcOffset) >= minutesPerDay) {
+      throw new IllegalArgumentException("utcOffset must be less than a day");
+    }
+
+    Map<String, Mask> copy = new HashMap<>(masks);
+    copy.put(attendee, new Mask(attendee, start, end, utcOffset));
+    return new WorkingHours(Collections.unmodifiableMap(copy));
+  }
+
+  /**
+   * Returns whether nobody has working hours.
+   */
+  public boolean isEmpty() {
+    return masks.isEmpty();
+  }
+
+  /**
+   * Returns the UTC times {@code attendee} works, merged and sorted, or null if they have no
+   * working hours.
+   */
+  IntervalSet getWorkingTimes(String attendee) {
+    Mask mask = masks.get(attendee);
+    return mask == null ? null : mask.workingTimes;
+  }
+
+  /**
+   * Returns the UTC times {@code attendee} does not work, merged and sorted, which are empty if
+   * they have no working hours.
+   */
+  IntervalSet getOffHours(String attendee) {
+    Mask mask = masks.get(attendee);
+    return mask == null ? NO_TIMES : mask.offHours;
+  }
+
+  /**
+   * Returns the minutes {@code attendee} does not work, or null if they have no working hours.
+   */
+  MinuteBitmap getOffHoursBitmap(String attendee) {
+    Mask mask = masks.get(attendee);
+    return mask == null ? null : mask.offHoursBitmap;
+  }
+
+  /**
+   * Returns an event for each of the times {@code attendee} does not work, so that engines that
+   * read events see them as busy. The list is empty if they have no working hours.
+   */
+  List<Event> getOffHoursEvents(String attendee) {
+    Mask mask = masks.get(attendee);
+    return mask == null ? Collections.emptyList() : mask.offHoursEvents;
+  }
+
+  /** One person's working hours compiled for the UTC day. */
+  private static final class Mask {
+    private final IntervalSet workingTimes;
+    private final IntervalSet offHours;
+    private final MinuteBitmap offHoursBitmap = new MinuteBitmap();
+    private final List<Event> offHoursEvents;
+
+    private Mask(String attendee, int start, int end, int utcOffset) {
+      int minutesPerDay = TimeRange.WHOLE_DAY.duration();
+      int utcStart = start - utcOffset;
+      int utcEnd = (end > start ? end : end + minutesPerDay) - utcOffset;
+
+      // The window can reach into the UTC days either side, so fold those copies back in.
+      IntervalSet working = new IntervalSet();
+      for (int day = -2; day <= 2; day++) {
+        int from = Math.max(0, utcStart + day * minutesPerDay);
+        int to = Math.min(minutesPerDay, utcEnd + day * minutesPerDay);
+        if (from < to) {
+          working.add(from, to);
+        }
+      }
+      working.sort();
+      this.workingTimes = working.merged();
+      this.offHours = workingTimes.complement(TimeRange.START_OF_DAY, minutesPerDay);
+
+      Event[] events = new Event[offHours.size()];
+      for (int i = 0; i < offHours.size(); i++) {
+        offHoursBitmap.mark(offHours.start(i), offHours.end(i));
+        events[i] = new Event(
+            OFF_HOURS_TITLE,
+            TimeRange.fromStartEnd(offHours.start(i), offHours.end(i), false),
+            Collections.singletonList(attendee));
+      }
+      this.offHoursEvents = Collections.unmodifiableList(Arrays.asList(events));
+    }
+  }
+}
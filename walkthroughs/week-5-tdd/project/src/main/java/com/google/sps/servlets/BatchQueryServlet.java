@@ -0,0 +1,94 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventSnapshot;
+import com.google.sps.JsonCodec;
+import com.google.sps.MeetingRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers many meeting requests in one call. The body is a JSON array of meeting requests and the
+ * response is a JSON array holding the answer to each, in the same order. Each answer is the same
+ * as {@link QueryServlet} gives for the request on its own, including the resources assigned to
+ * each time, and comes from the same calendar and result cache, as described in
+ * {@link MeetingTimeFinder}.
+ */
+@WebServlet("/batch-query")
+public class BatchQueryServlet extends HttpServlet {
+  private static final Gson GSON = JsonCodec.GSON;
+
+  private MeetingTimeFinder meetingTimeFinder;
+
+  private ForkJoinPool pool;
+
+  @Override
+  public void init() throws ServletException {
+    meetingTimeFinder = MeetingTimeFinder.get(getServletContext());
+    pool = new ForkJoinPool();
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    List<MeetingRequest> meetingRequests;
+    try {
+      meetingRequests = JsonCodec.readMeetingRequests(request.getReader());
+    } catch (JsonParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (meetingRequests == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+
+    // Every request in a batch reads the same snapshot, even if the events change meanwhile. Start
+    // every query before writing anything, so later ones run while earlier ones are sent.
+    EventSnapshot snapshot = meetingTimeFinder.getSnapshot();
+    List<ForkJoinTask<List<?>>> answers = new ArrayList<>(meetingRequests.size());
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      answers.add(
+          pool.submit(() -> meetingTimeFinder.findTimes(meetingRequest, snapshot, Long.MAX_VALUE)));
+    }
+
+    // Send each answer as soon as it and all the ones before it are ready.
+    response.setContentType("application/json");
+    JsonWriter writer = GSON.newJsonWriter(response.getWriter());
+    writer.beginArray();
+    for (ForkJoinTask<List<?>> answer : answers) {
+      List<?> times = answer.join();
+      GSON.toJson(times, times.getClass(), writer);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+}
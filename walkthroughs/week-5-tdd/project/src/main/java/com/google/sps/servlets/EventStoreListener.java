@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import java.util.Arrays;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Creates the one {@link EventStore} that every servlet reads and writes, seeded with the sample
+ * events, before any servlet starts.
+ */
+@WebListener
+public class EventStoreListener implements ServletContextListener {
+  private static final String EVENT_STORE = EventStore.class.getName();
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    event.getServletContext()
+        .setAttribute(EVENT_STORE, new EventStore(Arrays.asList(Events.events)));
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    event.getServletContext().removeAttribute(EVENT_STORE);
+  }
+
+  /**
+   * Returns the event store of the web app.
+   */
+  static EventStore getEventStore(ServletContext context) {
+    return (EventStore) context.getAttribute(EVENT_STORE);
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.EventSnapshot;
+import com.google.sps.EventStore;
+import com.google.sps.JsonCodec;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Lists, creates, updates and deletes the events in the {@link EventStore}.
+ *
+ * <ul>
+ *   <li>{@code GET /events} returns the snapshot version and every event by ID.
+ *   <li>{@code POST /events} creates the event in the body and returns its ID.
+ *   <li>{@code PUT /events?id=...} replaces an event with the one in the body.
+ *   <li>{@code DELETE /events?id=...} deletes an event.
+ * </ul>
+ *
+ * <p>Events are sent as {@code {"title": ..., "when": {"start": ..., "duration": ...},
+ * "attendees": [...]}}, the same as {@code /get-events}. Every change answers with the store's
+ * version that the change published, even if other changes follow at once.
+ */
+@WebServlet("/events")
+public class EventsServlet extends HttpServlet {
+  private static final Gson GSON = JsonCodec.GSON;
+
+  private EventStore eventStore;
+
+  @Override
+  public void init() {
+    eventStore = EventStoreListener.getEventStore(getServletContext());
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    EventSnapshot snapshot = eventStore.getSnapshot();
+    JsonObject json = new JsonObject();
+    json.addProperty("version", snapshot.getVersion());
+    json.add("events", GSON.toJsonTree(snapshot.getEvents()));
+
+    response.setContentType("application/json");
+    response.getWriter().println(GSON.toJson(json));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Event event = readEvent(request, response);
+    if (event == null) {
+      return;
+    }
+
+    EventStore.Created created = eventStore.create(event);
+    JsonObject json = new JsonObject();
+    json.addProperty("id", created.getId());
+    sendChange(response, json, created.getVersion());
+  }
+
+  @Override
+  public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String id = request.getParameter("id");
+    Event event = readEvent(request, response);
+    if (event == null) {
+      return;
+    }
+
+    long version = eventStore.update(id, event);
+    if (version < 0) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND, "No event with id " + id + ".");
+      return;
+    }
+    sendChange(response, new JsonObject(), version);
+  }
+
+  @Override
+  public void doDelete(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    String id = request.getParameter("id");
+    long version = eventStore.delete(id);
+    if (version < 0) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND, "No event with id " + id + ".");
+      return;
+    }
+    sendChange(response, new JsonObject(), version);
+  }
+
+  /**
+   * Reads an event from the request body. If the body is not a valid event, sends a 400 response
+   * and returns null.
+   */
+  private static Event readEvent(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    try {
+      EventJson json = GSON.fromJson(request.getReader(), EventJson.class);
+      if (json != null) {
+        // A range that ends before it starts, such as one with a negative duration, would only
+        // fail once the store indexes it.
+        if (json.when != null && json.when.end() < json.when.start()) {
+          throw new IllegalArgumentException("when cannot end before it starts.");
+        }
+        // The constructor checks the fields, which Gson fills in without checking.
+        return new Event(json.title, json.when, json.attendees);
+      }
+    } catch (JsonParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return null;
+    }
+    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an event.");
+    return null;
+  }
+
+  /**
+   * Sends the result of a change with the version it published, which later changes by other
+   * requests do not affect.
+   */
+  private static void sendChange(HttpServletResponse response, JsonObject json, long version)
+      throws IOException {
+    json.addProperty("version", version);
+    response.setContentType("application/json");
+    response.getWriter().println(GSON.toJson(json));
+  }
+
+  /** The fields of an event as they are sent in JSON. */
+  private static final class EventJson {
+    private String title;
+    private TimeRange when;
+    private List<String> attendees;
+  }
+}
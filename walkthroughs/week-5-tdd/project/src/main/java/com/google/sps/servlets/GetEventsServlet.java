@@ -14,23 +14,173 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.EventSnapshot;
+import com.google.sps.EventStore;
+import com.google.sps.JsonCodec;
 import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Returns every event in the {@link EventStore} as JSON. Clients poll this endpoint, and the events
+ * rarely change, so the JSON and a gzip-compressed copy are computed once per store version and
+ * served with a strong ETag. A client that sends that ETag back in {@code If-None-Match} gets an
+ * empty 304 response until the events change.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private static final Gson GSON = JsonCodec.GSON;
+
+  private EventStore eventStore;
+
+  // The response for the latest store version that has been asked for.
+  private final AtomicReference<Response> latest = new AtomicReference<>();
+
+  @Override
+  public void init() {
+    eventStore = EventStoreListener.getEventStore(getServletContext());
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    Response body = getResponse(eventStore.getSnapshot());
+    boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
 
-    // Send the JSON back as the response
+    // Both copies hold the same events, so either ETag shows the client is up to date.
+    response.setHeader("Vary", "Accept-Encoding");
+    response.setHeader("Cache-Control", "no-cache");
+    response.setHeader("ETag", gzip ? body.gzipETag : body.eTag);
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (matches(ifNoneMatch, body.eTag) || matches(ifNoneMatch, body.gzipETag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] bytes = gzip ? body.gzipJson : body.json;
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    if (gzip) {
+      response.setHeader("Content-Encoding", "gzip");
+    }
+    response.setContentLength(bytes.length);
+    response.getOutputStream().write(bytes);
+  }
+
+  /**
+   * Returns the response for the snapshot, building it only if its version has not been served
+   * before. Requests that race on a new version may each build it, but they build the same bytes.
+   */
+  Response getResponse(EventSnapshot snapshot) throws IOException {
+    Response current = latest.get();
+    if (current != null && current.version == snapshot.getVersion()) {
+      return current;
+    }
+
+    Response built = new Response(snapshot);
+    // Never replace a newer version with an older one.
+    latest.accumulateAndGet(
+        built, (old, fresh) -> old != null && old.version > fresh.version ? old : fresh);
+    return built;
+  }
+
+  /**
+   * Checks whether an Accept-Encoding header allows gzip, ignoring it when its quality is zero.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        for (int i = 1; i < parts.length; i++) {
+          String parameter = parts[i].trim();
+          if (parameter.startsWith("q=") && parseQuality(parameter.substring(2)) == 0) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static double parseQuality(String quality) {
+    try {
+      return Double.parseDouble(quality);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Checks whether an If-None-Match header names the ETag. As the header asks for, the comparison
+   * is weak, so a {@code W/} prefix is ignored.
+   */
+  static boolean matches(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The JSON of one store version, as plain and gzip-compressed bytes with an ETag for each.
+   */
+  static final class Response {
+    final long version;
+    final byte[] json;
+    final byte[] gzipJson;
+    final String eTag;
+    final String gzipETag;
+
+    private Response(EventSnapshot snapshot) throws IOException {
+      this.version = snapshot.getVersion();
+      this.json =
+          (GSON.toJson(snapshot.getEvents().values()) + "\n").getBytes(StandardCharsets.UTF_8);
+
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(json);
+      }
+      this.gzipJson = compressed.toByteArray();
+
+      // The ETag comes from the content rather than the version, so it stays valid across restarts
+      // that start counting versions again.
+      String hash = hash(json);
+      this.eTag = "\"" + hash + "\"";
+      this.gzipETag = "\"" + hash + "-gzip\"";
+    }
+
+    private static String hash(byte[] bytes) {
+      try {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+      } catch (NoSuchAlgorithmException e) {
+        // Every Java platform is required to support SHA-256.
+        throw new IllegalStateException(e);
+      }
+    }
   }
 }
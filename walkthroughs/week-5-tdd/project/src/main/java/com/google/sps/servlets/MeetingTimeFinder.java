@@ -0,0 +1,209 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AttendeeIndex;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.CalendarSnapshotWriter;
+import com.google.sps.EventSnapshot;
+import com.google.sps.EventStore;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.FreeBusyCache;
+import com.google.sps.JsonCodec;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryMetrics;
+import com.google.sps.QueryResultCache;
+import com.google.sps.WorkingHours;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+/**
+ * Finds the available times for meeting requests for {@link QueryServlet} and
+ * {@link BatchQueryServlet}, so that both give the same answers. Times are read from the
+ * {@link EventStore}, unless the {@value #SNAPSHOT_PROPERTY} system property names a file written
+ * by {@link CalendarSnapshotWriter}. That file is memory-mapped at startup and queried directly,
+ * which suits large read-only calendars; edits to the store are then not seen. If the
+ * {@value #WORKING_HOURS_PROPERTY} system property names a JSON file of working hours, as read by
+ * {@link JsonCodec#readWorkingHours}, only times within the attendees' hours are found. Answers go
+ * through one result cache and sampled queries are recorded in one set of metrics.
+ */
+final class MeetingTimeFinder {
+  static final String SNAPSHOT_PROPERTY = "com.google.sps.calendarSnapshot";
+
+  static final String WORKING_HOURS_PROPERTY = "com.google.sps.workingHours";
+
+  // Measure one in this many queries that miss the result cache. 0 turns the measuring off.
+  static final String SAMPLE_EVERY_PROPERTY = "com.google.sps.querySampleEvery";
+
+  // The phase timings and workload sizes of the queries, reported by QueryMetricsServlet.
+  static final QueryMetrics METRICS =
+      new QueryMetrics(Integer.getInteger(SAMPLE_EVERY_PROPERTY, 10));
+
+  // Answers to recent requests by their canonical form and the version of the events.
+  static final QueryResultCache<List<?>> RESULT_CACHE = new QueryResultCache<>(10000);
+
+  // Most queries involve the same people, so keep their merged busy times between requests. Edits
+  // to the events only drop the entries of the people they touch.
+  private static final FreeBusyCache FREE_BUSY_CACHE = new FreeBusyCache(10000);
+
+  // The version the answers from a calendar snapshot file are cached under.
+  private static final long SNAPSHOT_VERSION = -1;
+
+  private static final String FINDER = MeetingTimeFinder.class.getName();
+
+  private final EventStore eventStore;
+
+  // FindMeetingQuery keeps no state between calls, so one serves every request. The working hours
+  // are fixed at startup, so they never make a cached answer stale.
+  private final FindMeetingQuery findMeetingQuery;
+
+  // Merged busy times read from a snapshot are new on every request, so caching them is no use.
+  private final FindMeetingQuery snapshotQuery;
+
+  // The memory-mapped calendar to query instead of the store, or null to use the store.
+  private final CalendarSnapshot calendarSnapshot;
+
+  private MeetingTimeFinder(EventStore eventStore) throws ServletException {
+    this.eventStore = eventStore;
+
+    WorkingHours workingHours = readWorkingHours();
+    snapshotQuery = new FindMeetingQuery().withMetrics(METRICS).withWorkingHours(workingHours);
+    findMeetingQuery = snapshotQuery.withFreeBusyCache(FREE_BUSY_CACHE);
+
+    String snapshotFile = System.getProperty(SNAPSHOT_PROPERTY);
+    if (snapshotFile == null) {
+      calendarSnapshot = null;
+      return;
+    }
+    try {
+      calendarSnapshot = CalendarSnapshot.open(Paths.get(snapshotFile));
+    } catch (IOException e) {
+      throw new ServletException("Could not open calendar snapshot " + snapshotFile, e);
+    }
+  }
+
+  /**
+   * Returns the finder of the web app, creating it the first time, so that the calendar snapshot
+   * file is only mapped once.
+   */
+  static synchronized MeetingTimeFinder get(ServletContext context) throws ServletException {
+    MeetingTimeFinder finder = (MeetingTimeFinder) context.getAttribute(FINDER);
+    if (finder == null) {
+      finder = new MeetingTimeFinder(EventStoreListener.getEventStore(context));
+      context.setAttribute(FINDER, finder);
+    }
+    return finder;
+  }
+
+  /**
+   * Reads the working hours in the file the {@value #WORKING_HOURS_PROPERTY} system property names,
+   * or returns {@link WorkingHours#NONE} if it is not set.
+   */
+  static WorkingHours readWorkingHours() throws ServletException {
+    String workingHoursFile = System.getProperty(WORKING_HOURS_PROPERTY);
+    if (workingHoursFile == null) {
+      return WorkingHours.NONE;
+    }
+
+    try (Reader reader =
+        Files.newBufferedReader(Paths.get(workingHoursFile), StandardCharsets.UTF_8)) {
+      return JsonCodec.readWorkingHours(reader);
+    } catch (IOException | JsonParseException | IllegalArgumentException e) {
+      throw new ServletException("Could not read working hours " + workingHoursFile, e);
+    }
+  }
+
+  /**
+   * Returns the snapshot of the store to read times from, or null if they are read from the
+   * calendar snapshot file. Requests that should see the same events share one snapshot.
+   */
+  EventSnapshot getSnapshot() {
+    return calendarSnapshot != null ? null : eventStore.getSnapshot();
+  }
+
+  /**
+   * Finds at most {@code limit} of the earliest meeting times for a request in the given snapshot,
+   * as returned by {@link #getSnapshot}. Requests that need resources get each time with the
+   * resources assigned to it. Pass {@link Long#MAX_VALUE} to find every time.
+   */
+  List<?> findTimes(MeetingRequest meetingRequest, EventSnapshot snapshot, long limit) {
+    // Identical requests against the same events are answered from the cache. A snapshot file never
+    // changes, so all of its answers share one version.
+    long version = snapshot != null ? snapshot.getVersion() : SNAPSHOT_VERSION;
+    List<?> answer;
+    if (limit == Long.MAX_VALUE || !meetingRequest.getResourcePools().isEmpty()) {
+      answer =
+          RESULT_CACHE.get(meetingRequest, version, () -> findAllTimes(meetingRequest, snapshot));
+    } else {
+      // A limited request only searches as far as the times it sends back, unless the full answer
+      // is already cached. The shortened answer is not cached, as it would not do for others.
+      answer = RESULT_CACHE.getIfPresent(meetingRequest, version);
+      if (answer == null) {
+        answer = findFirstTimes(meetingRequest, snapshot, limit);
+      }
+    }
+    return answer.subList(0, (int) Math.min(limit, answer.size()));
+  }
+
+  /**
+   * Finds every possible meeting time, earliest first.
+   */
+  private List<?> findAllTimes(MeetingRequest meetingRequest, EventSnapshot snapshot) {
+    AttendeeIndex index = getAttendeeIndex(meetingRequest, snapshot);
+    FindMeetingQuery query = snapshot == null ? snapshotQuery : findMeetingQuery;
+    if (!meetingRequest.getResourcePools().isEmpty()) {
+      return query.queryWithResources(index, meetingRequest);
+    }
+    return new ArrayList<>(query.query(index, meetingRequest));
+  }
+
+  /**
+   * Finds at most {@code limit} of the earliest meeting times for a request without resources, in
+   * the same way as {@link #findAllTimes}.
+   */
+  private List<?> findFirstTimes(
+      MeetingRequest meetingRequest, EventSnapshot snapshot, long limit) {
+    FindMeetingQuery query = snapshot == null ? snapshotQuery : findMeetingQuery;
+    return query.stream(getAttendeeIndex(meetingRequest, snapshot), meetingRequest)
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the busy times of everyone in the request from the given snapshot of the store or, if
+   * it is null, from the calendar snapshot file.
+   */
+  private AttendeeIndex getAttendeeIndex(MeetingRequest meetingRequest, EventSnapshot snapshot) {
+    if (snapshot != null) {
+      return snapshot.getAttendeeIndex();
+    }
+
+    List<String> everyone = new ArrayList<>(meetingRequest.getAttendees());
+    everyone.addAll(meetingRequest.getOptionalAttendees());
+    for (List<String> pool : meetingRequest.getResourcePools()) {
+      everyone.addAll(pool);
+    }
+    return calendarSnapshot.getAttendeeIndex(everyone);
+  }
+}
@@ -0,0 +1,44 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryResultCache;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports how well the {@link MeetingTimeFinder} result cache is doing: the number of cached
+ * answers, hits and misses, and the share of requests answered from the cache.
+ */
+@WebServlet("/query-cache")
+public class QueryCacheServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    QueryResultCache<List<?>> cache = MeetingTimeFinder.RESULT_CACHE;
+    JsonObject json = new JsonObject();
+    json.addProperty("size", cache.size());
+    json.addProperty("hits", cache.getHitCount());
+    json.addProperty("misses", cache.getMissCount());
+    json.addProperty("hitRatio", cache.getHitRatio());
+
+    response.setContentType("application/json");
+    response.getWriter().println(json);
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Histogram;
+import com.google.sps.QueryMetrics;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports where {@link QueryServlet} and {@link BatchQueryServlet} queries spend their time. For
+ * each phase it gives the number of sampled queries and the mean, median, 90th and 99th percentile
+ * and largest time in microseconds, and the same for the size of each part of the workload. Only
+ * queries that miss the result cache are sampled, one in every {@code sampleEvery}, which can be
+ * set with the {@value MeetingTimeFinder#SAMPLE_EVERY_PROPERTY} system property.
+ */
+@WebServlet("/query-metrics")
+public class QueryMetricsServlet extends HttpServlet {
+  private static final double NANOS_PER_MICRO = 1000.0;
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    QueryMetrics metrics = MeetingTimeFinder.METRICS;
+    JsonObject json = new JsonObject();
+    json.addProperty("sampleEvery", metrics.getSampleEvery());
+
+    JsonObject phases = new JsonObject();
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      phases.add(phase.name(), summarize(metrics.getLatency(phase), NANOS_PER_MICRO));
+    }
+    json.add("phaseMicros", phases);
+
+    JsonObject sizes = new JsonObject();
+    for (QueryMetrics.Size size : QueryMetrics.Size.values()) {
+      sizes.add(size.name(), summarize(metrics.getSize(size), 1));
+    }
+    json.add("sizes", sizes);
+
+    response.setContentType("application/json");
+    response.getWriter().println(json);
+  }
+
+  private static JsonObject summarize(Histogram histogram, double unit) {
+    JsonObject json = new JsonObject();
+    json.addProperty("count", histogram.getCount());
+    json.addProperty("mean", histogram.getMean() / unit);
+    json.addProperty("p50", histogram.getPercentile(50) / unit);
+    json.addProperty("p90", histogram.getPercentile(90) / unit);
+    json.addProperty("p99", histogram.getPercentile(99) / unit);
+    json.addProperty("max", histogram.getMax() / unit);
+    return json;
+  }
+}
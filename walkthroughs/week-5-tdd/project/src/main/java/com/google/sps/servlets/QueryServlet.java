@@ -14,38 +14,67 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.sps.FindMeetingQuery;
+import com.google.sps.EventStore;
+import com.google.sps.JsonCodec;
 import com.google.sps.MeetingRequest;
-import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Finds the available times for the meeting request in the body. Times are read from the
+ * {@link EventStore} or a calendar snapshot file, within the attendees' working hours, as
+ * described in {@link MeetingTimeFinder}. The optional {@code limit} parameter caps the number of
+ * times sent back.
+ */
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
-  @Override
-  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+  private MeetingTimeFinder meetingTimeFinder;
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+  @Override
+  public void init() throws ServletException {
+    meetingTimeFinder = MeetingTimeFinder.get(getServletContext());
+  }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Read the MeetingRequest straight from the body.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = JsonCodec.readMeetingRequest(request.getReader());
+    } catch (JsonParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    // An optional limit on the number of times to send back.
+    long limit = Long.MAX_VALUE;
+    String limitParameter = request.getParameter("limit");
+    if (limitParameter != null) {
+      try {
+        limit = Long.parseLong(limitParameter);
+      } catch (NumberFormatException e) {
+        limit = -1;
+      }
+      if (limit < 0) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "limit must be a whole number.");
+        return;
+      }
+    }
 
-    // Send the JSON back as the response
+    // Write the times straight to the response as JSON. Requests that need resources get each time
+    // with the resources assigned to it.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    JsonCodec.write(
+        meetingTimeFinder.findTimes(meetingRequest, meetingTimeFinder.getSnapshot(), limit),
+        response.getWriter());
   }
 }
@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void namesGetDenseStableIds() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(PERSON_B, dictionary.getName(1));
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void lookupDoesNotIntern() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(-1, dictionary.lookup(PERSON_A));
+    Assert.assertEquals(0, dictionary.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cantInternNull() {
+    new AttendeeDictionary().intern(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cantLookUpNull() {
+    new AttendeeDictionary().lookup(null);
+  }
+
+  @Test
+  public void attendeeSetsAreSortedAndDistinct() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_B);
+
+    AttendeeSet set = AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B, PERSON_A), dictionary);
+
+    Assert.assertEquals(2, set.size());
+    Assert.assertEquals(0, set.get(0));
+    Assert.assertEquals(1, set.get(1));
+    Assert.assertTrue(set.contains(1));
+    Assert.assertFalse(set.contains(2));
+  }
+
+  @Test
+  public void lookedUpSetsLeaveOutUnknownNames() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_B);
+
+    AttendeeSet set = AttendeeSet.lookup(Arrays.asList(PERSON_A, PERSON_B), dictionary);
+
+    Assert.assertEquals(1, set.size());
+    Assert.assertEquals(0, set.get(0));
+    Assert.assertEquals(1, dictionary.size());
+  }
+
+  @Test
+  public void intersectsWithAndWithoutBitmap() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    for (int i = 0; i < 5000; i++) {
+      dictionary.intern("Person " + i);
+    }
+
+    // Small IDs get a bitmap, while a set holding a large ID falls back to binary search.
+    AttendeeSet small = AttendeeSet.of(Arrays.asList("Person 1", "Person 2"), dictionary);
+    AttendeeSet large = AttendeeSet.of(Arrays.asList("Person 2", "Person 4999"), dictionary);
+    AttendeeSet other = AttendeeSet.of(Arrays.asList("Person 3", "Person 4998"), dictionary);
+
+    Assert.assertTrue(small.intersects(large));
+    Assert.assertFalse(small.intersects(other));
+    Assert.assertFalse(large.intersects(other));
+  }
+
+  @Test
+  public void jsonKeepsNames() {
+    Event event = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A));
+
+    String json = new Gson().toJson(event);
+
+    Assert.assertFalse(json.contains("attendeeIds"));
+    Assert.assertTrue(json.contains(PERSON_A));
+  }
+}
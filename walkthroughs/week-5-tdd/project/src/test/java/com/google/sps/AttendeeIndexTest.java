@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final TimeRange MORNING = TimeRange.fromStartDuration(8 * 60, 60);
+  private static final TimeRange NOON = TimeRange.fromStartDuration(12 * 60, 30);
+  private static final TimeRange EVENING = TimeRange.fromStartDuration(18 * 60, 90);
+
+  @Test
+  public void busyTimesAreSortedPerAttendee() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", EVENING, Arrays.asList(PERSON_A)),
+        new Event("Event 2", MORNING, Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 3", NOON, Arrays.asList(PERSON_A)));
+
+    AttendeeIndex index = AttendeeIndex.of(events);
+
+    Assert.assertEquals(Arrays.asList(MORNING, NOON, EVENING), index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(MORNING), index.getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void unknownAttendeeIsFree() {
+    AttendeeIndex index =
+        AttendeeIndex.of(Arrays.asList(new Event("Event 1", NOON, Arrays.asList(PERSON_A))));
+
+    Assert.assertTrue(index.getBusyTimes(PERSON_C).isEmpty());
+    Assert.assertFalse(index.getAttendees().contains(PERSON_C));
+  }
+
+  @Test
+  public void withChangeOnlyRebuildsChangedAttendees() {
+    Event shared = new Event("Event 1", MORNING, Arrays.asList(PERSON_A, PERSON_B));
+    Event duplicate = new Event("Event 2", MORNING, Arrays.asList(PERSON_A));
+    Event other = new Event("Event 3", EVENING, Arrays.asList(PERSON_C));
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(shared, duplicate, other));
+
+    AttendeeIndex changed =
+        index.withChange(shared, new Event("Event 1", NOON, Arrays.asList(PERSON_A)));
+
+    // Only one of Person A's two morning events was removed.
+    Assert.assertEquals(Arrays.asList(MORNING, NOON), changed.getBusyTimes(PERSON_A));
+    Assert.assertFalse(changed.getAttendees().contains(PERSON_B));
+    Assert.assertSame(index.getBusyIntervals(PERSON_C), changed.getBusyIntervals(PERSON_C));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void busyTimesAreReadOnly() {
+    AttendeeIndex index =
+        AttendeeIndex.of(Arrays.asList(new Event("Event 1", NOON, Arrays.asList(PERSON_A))));
+
+    List<TimeRange> busyTimes = index.getBusyTimes(PERSON_A);
+    busyTimes.set(0, MORNING);
+  }
+}
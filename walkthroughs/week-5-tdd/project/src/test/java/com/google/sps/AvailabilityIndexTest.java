@@ -0,0 +1,164 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int END_OF_DAY = TimeRange.WHOLE_DAY.end();
+
+  private static final Event MORNING =
+      new Event("Morning", TimeRange.fromStartEnd(480, 540, false), Arrays.asList(PERSON_A));
+  private static final Event OVERLAPPING = new Event(
+      "Overlapping", TimeRange.fromStartEnd(510, 600, false), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event EVENING =
+      new Event("Evening", TimeRange.fromStartEnd(1080, 1170, false), Arrays.asList(PERSON_B));
+
+  private static IntervalSet intervals(int... bounds) {
+    IntervalSet set = new IntervalSet();
+    for (int i = 0; i < bounds.length; i += 2) {
+      set.add(bounds[i], bounds[i + 1]);
+    }
+    return set;
+  }
+
+  @Test
+  public void freeTimesOfGroup() {
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING, OVERLAPPING, EVENING));
+
+    Assert.assertEquals(
+        intervals(0, 480, 600, END_OF_DAY), index.getFreeTimes(Arrays.asList(PERSON_A), 30));
+    Assert.assertEquals(intervals(0, 480, 600, 1080, 1170, END_OF_DAY),
+        index.getFreeTimes(Arrays.asList(PERSON_A, PERSON_B), 30));
+    Assert.assertEquals(
+        intervals(0, END_OF_DAY), index.getFreeTimes(Arrays.asList(PERSON_C), 30));
+  }
+
+  @Test
+  public void shortFreeTimesAreSkipped() {
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING, EVENING));
+
+    Assert.assertEquals(intervals(0, 480, 540, 1080, 1170, END_OF_DAY),
+        index.getFreeTimes(Arrays.asList(PERSON_A, PERSON_B), 270));
+    Assert.assertEquals(
+        intervals(540, 1080), index.getFreeTimes(Arrays.asList(PERSON_A, PERSON_B), 500));
+  }
+
+  @Test
+  public void removingEventFreesOnlyUnsharedTime() {
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING, OVERLAPPING));
+
+    index.removeEvent(MORNING);
+
+    Assert.assertEquals(intervals(510, 600), index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(1, index.size());
+  }
+
+  @Test
+  public void longestFreeTime() {
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING, OVERLAPPING, EVENING));
+
+    Assert.assertEquals(END_OF_DAY - 600, index.getLongestFreeTime(Arrays.asList(PERSON_A)));
+    Assert.assertEquals(480, index.getLongestFreeTime(Arrays.asList(PERSON_A, PERSON_B)));
+  }
+
+  @Test
+  public void removingEveryEventFreesEveryone() {
+    Event empty = new Event("Empty", TimeRange.fromStartDuration(700, 0), Arrays.asList(PERSON_A));
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING, OVERLAPPING, empty));
+
+    index.removeEvent(MORNING);
+    index.removeEvent(OVERLAPPING);
+    index.removeEvent(empty);
+
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(intervals(), index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(
+        intervals(0, END_OF_DAY), index.getFreeTimes(Arrays.asList(PERSON_A, PERSON_B), 30));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void removingUnknownEventIsRejected() {
+    AvailabilityIndex index = AvailabilityIndex.of(Arrays.asList(MORNING));
+
+    index.removeEvent(EVENING);
+  }
+
+  @Test
+  public void randomEditsMatchBitmap() {
+    Random random = new Random(7);
+    MinuteSegmentTree tree = new MinuteSegmentTree();
+    int[] counts = new int[END_OF_DAY];
+    IntervalSet added = new IntervalSet();
+
+    for (int edit = 0; edit < 500; edit++) {
+      int start;
+      int end;
+      int delta;
+      if (added.size() > 0 && random.nextInt(3) == 0) {
+        // Remove an event that was added before.
+        int i = random.nextInt(added.size());
+        start = added.start(i);
+        end = added.end(i);
+        delta = -1;
+        added = without(added, i);
+      } else {
+        start = random.nextInt(END_OF_DAY);
+        end = Math.min(END_OF_DAY, start + 1 + random.nextInt(120));
+        delta = 1;
+        added.add(start, end);
+      }
+      tree.add(start, end, delta);
+      for (int minute = start; minute < end; minute++) {
+        counts[minute] += delta;
+      }
+
+      MinuteBitmap bitmap = new MinuteBitmap();
+      for (int minute = 0; minute < END_OF_DAY; minute++) {
+        if (counts[minute] > 0) {
+          bitmap.mark(minute, minute + 1);
+        }
+      }
+      long duration = 1 + random.nextInt(60);
+      IntervalSet expected = new IntervalSet();
+      bitmap.addFreeTimes(expected, duration);
+      IntervalSet actual = new IntervalSet();
+      tree.addFreeTimes(actual, duration);
+
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  private static IntervalSet without(IntervalSet set, int skipped) {
+    IntervalSet copy = new IntervalSet();
+    for (int i = 0; i < set.size(); i++) {
+      if (i != skipped) {
+        copy.add(set.start(i), set.end(i));
+      }
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarSnapshotTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(540, 600, false), Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartEnd(480, 570, false),
+          Arrays.asList(PERSON_A, PERSON_B)),
+      new Event("Event 3", TimeRange.fromStartEnd(900, 960, false), Arrays.asList(PERSON_B)));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void writtenEventsAreMergedPerAttendee() throws IOException {
+    Path file = folder.newFile().toPath();
+    CalendarSnapshotWriter.write(EVENTS, file);
+
+    CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+    Assert.assertEquals(2, snapshot.getAttendees().size());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(480, 600, false)),
+        snapshot.getBusyIntervals(PERSON_A).toTimeRanges());
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(480, 570, false), TimeRange.fromStartEnd(900, 960, false)),
+        snapshot.getBusyIntervals(PERSON_B).toTimeRanges());
+    Assert.assertTrue(snapshot.getBusyIntervals(PERSON_C).isEmpty());
+  }
+
+  @Test
+  public void queryMatchesEvents() throws IOException {
+    Path file = folder.newFile().toPath();
+    CalendarSnapshotWriter.write(EVENTS, file);
+    CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    Assert.assertEquals(query.query(EVENTS, request), query.query(snapshot, request));
+  }
+
+  @Test
+  public void jsonEventsAreWritten() throws IOException {
+    String json = "[{\"title\": \"Event 1\", \"when\": {\"start\": 60, \"duration\": 30},"
+        + " \"attendees\": [\"" + PERSON_A + "\", \"" + PERSON_B + "\"]}]";
+    Path file = folder.newFile().toPath();
+    CalendarSnapshotWriter.writeJson(new StringReader(json), file);
+
+    CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(60, 30)),
+        snapshot.getBusyIntervals(PERSON_B).toTimeRanges());
+  }
+
+  @Test(expected = IOException.class)
+  public void otherFilesAreRejected() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+    CalendarSnapshot.open(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void offsetsPastTheIntervalsAreRejected() throws IOException {
+    // Attendee 0's intervals would end after the last interval.
+    CalendarSnapshot.open(corrupt(CalendarSnapshot.HEADER_BYTES + Integer.BYTES, 1000));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedNamesAreRejected() throws IOException {
+    Path file = folder.newFile().toPath();
+    CalendarSnapshotWriter.write(EVENTS, file);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+    CalendarSnapshot.open(file);
+  }
+
+  /** Writes the events to a snapshot, then overwrites the int at {@code position}. */
+  private Path corrupt(int position, int value) throws IOException {
+    Path file = folder.newFile().toPath();
+    CalendarSnapshotWriter.write(EVENTS, file);
+    byte[] bytes = Files.readAllBytes(file);
+    ByteBuffer.wrap(bytes).putInt(position, value);
+    Files.write(file, bytes);
+    return file;
+  }
+}
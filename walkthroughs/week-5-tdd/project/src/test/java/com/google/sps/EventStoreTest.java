@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final TimeRange MORNING = TimeRange.fromStartDuration(8 * 60, 60);
+  private static final TimeRange NOON = TimeRange.fromStartDuration(12 * 60, 30);
+
+  private static final Event EVENT_A = new Event("Event A", MORNING, Arrays.asList(PERSON_A));
+  private static final Event EVENT_B = new Event("Event B", NOON, Arrays.asList(PERSON_B));
+
+  @Test
+  public void createPublishesNewSnapshot() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_A));
+    EventSnapshot before = store.getSnapshot();
+
+    EventStore.Created created = store.create(EVENT_B);
+    EventSnapshot after = store.getSnapshot();
+
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+    Assert.assertEquals(after.getVersion(), created.getVersion());
+    Assert.assertEquals(EVENT_B, after.getEvents().get(created.getId()));
+    Assert.assertEquals(Arrays.asList(NOON), after.getAttendeeIndex().getBusyTimes(PERSON_B));
+
+    // The old snapshot is unchanged.
+    Assert.assertEquals(Arrays.asList(EVENT_A), new ArrayList<>(before.getEvents().values()));
+    Assert.assertTrue(before.getAttendeeIndex().getBusyTimes(PERSON_B).isEmpty());
+  }
+
+  @Test
+  public void updateReplacesEvent() {
+    EventStore store = new EventStore();
+    String id = store.create(EVENT_A).getId();
+
+    Event moved = new Event("Event A", NOON, Arrays.asList(PERSON_A));
+    long version = store.update(id, moved);
+
+    EventSnapshot snapshot = store.getSnapshot();
+    Assert.assertEquals(snapshot.getVersion(), version);
+    Assert.assertEquals(moved, snapshot.getEvents().get(id));
+    Assert.assertEquals(Arrays.asList(NOON), snapshot.getAttendeeIndex().getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void deleteRemovesEvent() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_A, EVENT_B));
+    String id = store.getSnapshot().getEvents().keySet().iterator().next();
+
+    long version = store.delete(id);
+
+    EventSnapshot snapshot = store.getSnapshot();
+    Assert.assertEquals(snapshot.getVersion(), version);
+    Assert.assertEquals(Arrays.asList(EVENT_B), new ArrayList<>(snapshot.getEvents().values()));
+    Assert.assertFalse(snapshot.getAttendeeIndex().getAttendees().contains(PERSON_A));
+  }
+
+  @Test
+  public void unknownIdIsNotChanged() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_A));
+    long version = store.getSnapshot().getVersion();
+
+    Assert.assertEquals(-1, store.update("missing", EVENT_B));
+    Assert.assertEquals(-1, store.delete("missing"));
+    Assert.assertEquals(version, store.getSnapshot().getVersion());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotEventsAreReadOnly() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_A));
+
+    store.getSnapshot().getEvents().clear();
+  }
+}
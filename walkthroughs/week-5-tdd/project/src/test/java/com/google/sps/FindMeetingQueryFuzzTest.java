@@ -0,0 +1,198 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Differential tests that run every engine, through every way of reading a calendar, on random
+ * calendars and requests, and check that they all give the original engine's answers.
+ */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryFuzzTest {
+  // Each seed is one random calendar and request, so a failure names the seed that reproduces it.
+  private static final int SEEDS = 300;
+
+  // Calendars grow from 1 event to this many as the seed grows.
+  private static final int MAX_EVENTS = 1024;
+
+  // Coarse grids make events start and end at the same minutes, which is where the engines have
+  // had to agree on touching, nested and duplicate events.
+  private static final int[] GRIDS = {1, 5, 15, 60};
+
+  private static final long[] DURATIONS = {1, 15, 30, 60, 90, 240, 1440};
+
+  /**
+   * One way of reading a calendar, checked against the original engine reading the events.
+   */
+  private interface Source {
+    Collection<TimeRange> query(Collection<Event> events, MeetingRequest request);
+  }
+
+  @Test
+  public void everyEngineAndSourceMatchesLegacyEngine() {
+    FindMeetingQuery legacy = new FindMeetingQuery().withEngine(FindMeetingQuery.Engine.LEGACY);
+    for (int seed = 0; seed < SEEDS; seed++) {
+      Random random = new Random(seed);
+      List<Event> events = randomEvents(random, Math.min(1 << (seed % 11), MAX_EVENTS));
+      MeetingRequest request = randomRequest(random);
+      Collection<TimeRange> original = legacy.query(events, request);
+      Collection<TimeRange> expected = expectedTimes(original, events, request);
+      String message = "seed " + seed + ", " + events.size() + " events, request "
+          + request.getAttendees() + " optional " + request.getOptionalAttendees() + " for "
+          + request.getDuration();
+
+      // The original engine must still give its own answers through every source.
+      for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+        Collection<TimeRange> engineExpected =
+            engine == FindMeetingQuery.Engine.LEGACY ? original : expected;
+        for (Source source : sources(engine)) {
+          Assert.assertEquals(message + ", " + engine, new ArrayList<>(engineExpected),
+              new ArrayList<>(source.query(events, request)));
+        }
+      }
+      for (Source source : sourcesWithoutEngine()) {
+        Assert.assertEquals(message, new ArrayList<>(expected),
+            new ArrayList<>(source.query(events, request)));
+      }
+    }
+  }
+
+  /**
+   * Returns the original engine's answer, with the one answer that the other engines correct put
+   * right: when the request has optional attendees but the people considered last have no events,
+   * the original engine finds no times rather than the whole day.
+   */
+  private static Collection<TimeRange> expectedTimes(
+      Collection<TimeRange> times, List<Event> events, MeetingRequest request) {
+    if (!times.isEmpty() || request.getOptionalAttendees().isEmpty()
+        || request.isMaximizingOptionalAttendees()
+        || request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return times;
+    }
+
+    // The engine falls back to the mandatory attendees if there are any.
+    Collection<String> considered = request.getAttendees().isEmpty()
+        ? request.getOptionalAttendees()
+        : request.getAttendees();
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), considered)) {
+        return times;
+      }
+    }
+    return Collections.singletonList(TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Returns every way of reading a calendar that finds the gaps with the given engine.
+   */
+  private static List<Source> sources(FindMeetingQuery.Engine engine) {
+    FindMeetingQuery query = new FindMeetingQuery().withEngine(engine);
+    FindMeetingQuery parallelQuery = query.withParallelThreshold(0);
+    FindMeetingQuery cachedQuery = query.withFreeBusyCache(new FreeBusyCache(100));
+
+    List<Source> sources = new ArrayList<>();
+    sources.add(query::query);
+    sources.add(parallelQuery::query);
+    sources.add((events, request) -> query.query(AttendeeIndex.of(events), request));
+    sources.add((events, request) -> cachedQuery.query(AttendeeIndex.of(events), request));
+    return sources;
+  }
+
+  /**
+   * Returns the ways of reading a calendar that find the gaps without using an engine.
+   */
+  private static List<Source> sourcesWithoutEngine() {
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    List<Source> sources = new ArrayList<>();
+    sources.add((events, request) -> query.query(AvailabilityIndex.of(events), request));
+    sources.add((events, request) ->
+        query.stream(AttendeeIndex.of(events), request).collect(Collectors.toList()));
+    return sources;
+  }
+
+  /**
+   * Returns {@code count} events among a few people, so that they often overlap, touch, nest
+   * inside each other or repeat. Some have no duration, which the original engine treats as
+   * splitting the free time around them.
+   */
+  private static List<Event> randomEvents(Random random, int count) {
+    int people = 2 + count / 16;
+    int grid = GRIDS[random.nextInt(GRIDS.length)];
+    int slots = TimeRange.WHOLE_DAY.duration() / grid;
+
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      TimeRange when;
+      if (i > 0 && random.nextInt(20) == 0) {
+        when = events.get(random.nextInt(i)).getWhen();
+      } else {
+        int start = grid * random.nextInt(slots + 1);
+        int shape = random.nextInt(10);
+        int end;
+        if (shape == 0) {
+          end = TimeRange.END_OF_DAY + 1;
+        } else if (shape == 1) {
+          end = start;
+        } else {
+          end = Math.min(start + grid * (1 + random.nextInt(8)), TimeRange.END_OF_DAY + 1);
+        }
+        when = TimeRange.fromStartEnd(start, end, false);
+      }
+
+      Set<String> attendees = new HashSet<>();
+      int attendeeCount = 1 + random.nextInt(3);
+      while (attendees.size() < Math.min(attendeeCount, people)) {
+        attendees.add("Person " + random.nextInt(people));
+      }
+      events.add(new Event("Event " + i, when, attendees));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a request for up to three mandatory and three optional people, drawn from a larger
+   * group than the events so that some of them are free all day.
+   */
+  private static MeetingRequest randomRequest(Random random) {
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < 80; i++) {
+      people.add("Person " + i);
+    }
+    Collections.shuffle(people, random);
+
+    int mandatoryCount = random.nextInt(4);
+    int optionalCount = random.nextInt(4);
+    long duration = DURATIONS[random.nextInt(DURATIONS.length)];
+    MeetingRequest request = new MeetingRequest(people.subList(0, mandatoryCount), duration);
+    for (String attendee : people.subList(mandatoryCount, mandatoryCount + optionalCount)) {
+      request.addOptionalAttendee(attendee, 1 + random.nextInt(3));
+    }
+    request.setMaximizeOptionalAttendees(random.nextInt(5) == 0);
+    return request;
+  }
+}
@@ -19,14 +19,18 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** */
-@RunWith(JUnit4.class)
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
@@ -35,6 +39,13 @@ public final class FindMeetingQueryTest {
   private static final String PERSON_A = "Person A";
   private static final String PERSON_B = "Person B";
   private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+  private static final String PERSON_E = "Person E";
+
+  // Some resources that meetings can need.
+  private static final String ROOM_A = "Room A";
+  private static final String ROOM_B = "Room B";
+  private static final String PROJECTOR = "Projector";
 
   // All dates are the first day of the year 2020.
   private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
@@ -50,18 +61,86 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
+  /** Where a query reads the events from. */
+  private enum Source {
+    EVENTS,
+    PARALLEL_EVENTS,
+    INDEX,
+    CACHED_INDEX,
+    AVAILABILITY_INDEX,
+    STREAM
+  }
+
+  // Every engine must give the same answers whether it reads the events directly, scanning them on
+  // one thread or in parallel, or through an AttendeeIndex, with or without a FreeBusyCache, so
+  // each test runs once per combination. An AvailabilityIndex answers without the engine, as does
+  // the lazy stream over an AttendeeIndex, and both must agree with all of them.
+  @Parameters(name = "{0}, {1}")
+  public static Collection<Object[]> engines() {
+    List<Object[]> engines = new ArrayList<>();
+    for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+      for (Source source : Source.values()) {
+        engines.add(new Object[] {engine, source});
+      }
+    }
+    return engines;
+  }
+
+  @Parameter(0)
+  public FindMeetingQuery.Engine engine;
+
+  @Parameter(1)
+  public Source source;
+
   private FindMeetingQuery query;
 
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    if (source == Source.CACHED_INDEX) {
+      query = new FindMeetingQuery().withEngine(engine).withFreeBusyCache(new FreeBusyCache(100));
+    } else if (source == Source.PARALLEL_EVENTS) {
+      query = new FindMeetingQuery().withEngine(engine).withParallelThreshold(0);
+    } else {
+      query = new FindMeetingQuery().withEngine(engine);
+    }
+  }
+
+  private Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    switch (source) {
+      case EVENTS:
+      case PARALLEL_EVENTS:
+        return query.query(events, request);
+      case AVAILABILITY_INDEX:
+        return query.query(AvailabilityIndex.of(events), request);
+      case STREAM:
+        return query.stream(AttendeeIndex.of(events), request).collect(Collectors.toList());
+      default:
+        return query.query(AttendeeIndex.of(events), request);
+    }
+  }
+
+  // The AvailabilityIndex and the stream find the gaps themselves, whatever the engine.
+  private boolean usesLegacyGaps() {
+    return engine == FindMeetingQuery.Engine.LEGACY && source != Source.AVAILABILITY_INDEX
+        && source != Source.STREAM;
+  }
+
+  private List<ResourceSlot> queryWithResources(
+      Collection<Event> events, MeetingRequest request) {
+    switch (source) {
+      case EVENTS:
+      case PARALLEL_EVENTS:
+        return query.queryWithResources(events, request);
+      default:
+        return query.queryWithResources(AttendeeIndex.of(events), request);
+    }
   }
 
   @Test
   public void optionsForNoAttendees() {
     MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_1_HOUR);
 
-    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+    Collection<TimeRange> actual = query(NO_EVENTS, request);
     Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
 
     Assert.assertEquals(expected, actual);
@@ -73,7 +152,7 @@ public final class FindMeetingQueryTest {
     int duration = TimeRange.WHOLE_DAY.duration() + 1;
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), duration);
 
-    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+    Collection<TimeRange> actual = query(NO_EVENTS, request);
     Collection<TimeRange> expected = Arrays.asList();
 
     Assert.assertEquals(expected, actual);
@@ -87,7 +166,7 @@ public final class FindMeetingQueryTest {
 
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
             TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
@@ -113,7 +192,7 @@ public final class FindMeetingQueryTest {
     MeetingRequest request =
         new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
             TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
@@ -140,7 +219,7 @@ public final class FindMeetingQueryTest {
     MeetingRequest request =
         new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
             TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
@@ -167,7 +246,7 @@ public final class FindMeetingQueryTest {
     MeetingRequest request =
         new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
             TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
@@ -192,7 +271,7 @@ public final class FindMeetingQueryTest {
 
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
             TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
@@ -217,7 +296,7 @@ public final class FindMeetingQueryTest {
 
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES));
 
@@ -232,7 +311,7 @@ public final class FindMeetingQueryTest {
         TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
 
     Assert.assertEquals(expected, actual);
@@ -243,7 +322,7 @@ public final class FindMeetingQueryTest {
     MeetingRequest request =
         new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
 
-    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+    Collection<TimeRange> actual = query(NO_EVENTS, request);
     Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
 
     Assert.assertEquals(expected, actual);
@@ -266,7 +345,7 @@ public final class FindMeetingQueryTest {
 
     MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected = Arrays.asList();
 
     Assert.assertEquals(expected, actual);
@@ -287,7 +366,7 @@ public final class FindMeetingQueryTest {
     
     request.addOptionalAttendee(PERSON_C);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
             TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
@@ -311,7 +390,7 @@ public final class FindMeetingQueryTest {
     
     request.addOptionalAttendee(PERSON_C);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
             TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
@@ -333,7 +412,7 @@ public final class FindMeetingQueryTest {
     
     request.addOptionalAttendee(PERSON_C);
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES));
 
@@ -353,7 +432,7 @@ public final class FindMeetingQueryTest {
     request.addOptionalAttendee(PERSON_A); 
     request.addOptionalAttendee(PERSON_B);  
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES));
 
@@ -373,11 +452,365 @@ public final class FindMeetingQueryTest {
     request.addOptionalAttendee(PERSON_A);
     request.addOptionalAttendee(PERSON_B);    
 
-    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> actual = query(events, request);
     Collection<TimeRange> expected =
         Arrays.asList();
 
     Assert.assertEquals(expected, actual);
   } 
-}
 
+  @Test
+  public void optionalAttendeeWithNoEvents() {
+    // Nobody in the request has anything scheduled, so the optional attendee can make any time.
+    // The original engine finds nothing here, and is kept that way as the reference.
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = query(NO_EVENTS, request);
+    Collection<TimeRange> expected =
+        usesLegacyGaps() ? Arrays.asList() : Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventWithNoDurationSplitsFreeTime() {
+    // Events  :       |A
+    // Day     : |-----------------------------|
+    // Options : |--1--|-----------2-----------|
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, 0), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventRunsPastEndOfDay() {
+    // Events  : |--A--|             |--A---...
+    // Day     : |---------------------|
+    // Options :       |--1--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_1000AM, 24 * 60),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void sharedEventWithOptionalAttendee() {
+    // The optional attendee shares an event with a mandatory attendee and is busy for the rest of
+    // the day too. The shared event must still block the fallback answer without them.
+    //
+    // Events  : |--C--|--A,C--|   |-----C-----|
+    // Day     : |---------------------------|
+    // Options : |--1--|       |-----2-------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_C)),
+        new Event("Event 2", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_2_HOUR);
+
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizeOptional_everyoneFits() {
+    // When every optional attendee can make it, maximizing gives the same answer as requiring them.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Events where no time works for all of B, C, D and E, but 9:00 to 10:00 works for all but E. */
+  private static Collection<Event> mostlyBusyOptionalAttendees() {
+    // Events  :            |-A-|
+    //           |------B,C------|
+    //                           |-E-|
+    //                               |------C,D------|
+    // Day     : |-------------------------------------|
+    return Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_B, PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_E)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C, PERSON_D)));
+  }
+
+  @Test
+  public void maximizeOptional_largestGroup() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+    request.addOptionalAttendee(PERSON_E);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<TimeRange> actual = query(mostlyBusyOptionalAttendees(), request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizeOptional_weightedAttendee() {
+    // E now counts as three people, so the best times are the ones E can make, where only two of
+    // the others are missing.
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+    request.addOptionalAttendee(PERSON_E, 3);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<TimeRange> actual = query(mostlyBusyOptionalAttendees(), request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizeOptional_noMandatoryAttendees() {
+    // Only one of A and B can make any 90 minute slot. The two slots overlap because a different
+    // attendee is free in each.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(0, 12 * 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(13 * 60, 24 * 60),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(), DURATION_90_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+    request.addOptionalAttendee(PERSON_B);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 13 * 60, false),
+        TimeRange.fromStartEnd(12 * 60, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizeOptional_nobodyCanAttend() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY,
+        Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected = Arrays.asList();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void streamReturnsEarliestTimesFirst() {
+    // Person A has a 30 minute event every hour, leaving 24 gaps.
+    List<Event> events = new ArrayList<>();
+    for (int hour = 0; hour < 24; hour++) {
+      events.add(new Event("Event " + hour, TimeRange.fromStartDuration(hour * 60 + 30, 30),
+          Arrays.asList(PERSON_A)));
+    }
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual = query.stream(AttendeeIndex.of(events), request)
+                                 .limit(3)
+                                 .collect(Collectors.toList());
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(0, 30),
+        TimeRange.fromStartDuration(60, 30), TimeRange.fromStartDuration(120, 30));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void resourcesAreAssignedWhereAttendeesAreFree() {
+    // Person A is busy from 9:00 to 10:00. Room A is free from 8:00 and room B until 10:00.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Booking 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(ROOM_A)),
+        new Event("Booking 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(ROOM_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addResourcePool(Arrays.asList(ROOM_A, ROOM_B));
+
+    List<ResourceSlot> actual = queryWithResources(events, request);
+    List<ResourceSlot> expected = Arrays.asList(
+        new ResourceSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(ROOM_B)),
+        new ResourceSlot(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(ROOM_A)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void everyResourcePoolIsConsidered() {
+    // Room A is free all day, but the only projector is booked from 8:00 to 10:00.
+    Collection<Event> events = Arrays.asList(
+        new Event("Booking 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            Arrays.asList(PROJECTOR)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    request.addResourcePool(Arrays.asList(ROOM_A));
+    request.addResourcePool(Arrays.asList(PROJECTOR));
+
+    List<ResourceSlot> actual = queryWithResources(events, request);
+    List<ResourceSlot> expected = Arrays.asList(
+        new ResourceSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(ROOM_A, PROJECTOR)),
+        new ResourceSlot(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(ROOM_A, PROJECTOR)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noSlotsWhenEveryResourceIsBooked() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Booking 1", TimeRange.WHOLE_DAY, Arrays.asList(ROOM_A)),
+        new Event("Booking 2", TimeRange.WHOLE_DAY, Arrays.asList(ROOM_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addResourcePool(Arrays.asList(ROOM_A, ROOM_B));
+
+    Assert.assertEquals(Arrays.asList(), queryWithResources(events, request));
+  }
+
+  @Test
+  public void parallelScanMatchesSequentialScan() {
+    // Enough events for the parallel scan to split them into several sorted runs.
+    Random random = new Random(11);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      int start = random.nextInt(TimeRange.END_OF_DAY);
+      int duration = 1 + random.nextInt(Math.min(30, TimeRange.END_OF_DAY - start + 1));
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList("Person " + random.nextInt(2000), "Person " + random.nextInt(2000))));
+    }
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Person 1", "Person 2", "Person 3"), DURATION_30_MINUTES);
+    request.addOptionalAttendee("Person 4");
+    request.addOptionalAttendee("Person 5");
+
+    FindMeetingQuery sequentialQuery =
+        new FindMeetingQuery().withEngine(engine).withParallelThreshold(Integer.MAX_VALUE);
+    Collection<TimeRange> expected = sequentialQuery.query(events, request);
+    Collection<TimeRange> actual =
+        sequentialQuery.withParallelThreshold(0).query(events, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void onlyWorkingHoursAreOffered() {
+    // Person A works 9:00 to 17:00 at UTC-5, so 14:00 to 22:00 UTC, and Person B works nights,
+    // 22:00 to 6:00 UTC. Nobody is free when both work, so only Person A's hours are offered.
+    //
+    // Events  :                       |-A-|
+    // Hours A :                     |--A-------|
+    // Hours B : |-B-|                          |-B-|
+    // Options :                     |1|   |--2-|
+    query = query.withWorkingHours(WorkingHours.NONE
+        .with(PERSON_A, TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0), -300)
+        .with(PERSON_B, TimeRange.getTimeInMinutes(22, 0), TimeRange.getTimeInMinutes(6, 0), 0));
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(15, 0), TimeRange.getTimeInMinutes(16, 0),
+            false),
+        Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(14, 0),
+            TimeRange.getTimeInMinutes(15, 0), false),
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(16, 0),
+            TimeRange.getTimeInMinutes(22, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesWorkingHoursAreConsidered() {
+    // Person A works 14:00 to 22:00 UTC and Person B 13:00 to 16:00 UTC, so with Person B the
+    // meeting has to be before Person A's event, whether or not optional attendees are maximized.
+    query = query.withWorkingHours(WorkingHours.NONE
+        .with(PERSON_A, TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0), -300)
+        .with(PERSON_B, TimeRange.getTimeInMinutes(13, 0), TimeRange.getTimeInMinutes(16, 0), 0));
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(15, 0), TimeRange.getTimeInMinutes(16, 0),
+            false),
+        Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(
+        TimeRange.getTimeInMinutes(14, 0), TimeRange.getTimeInMinutes(15, 0), false));
+
+    Assert.assertEquals(expected, query(events, request));
+
+    request.setMaximizeOptionalAttendees(true);
+    Assert.assertEquals(expected, query(events, request));
+  }
+}
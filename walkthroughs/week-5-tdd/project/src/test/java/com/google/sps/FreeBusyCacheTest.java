@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeBusyCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(60, 120, false), Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartEnd(90, 150, false), Arrays.asList(PERSON_A)),
+      new Event("Event 3", TimeRange.fromStartEnd(150, 180, false), Arrays.asList(PERSON_A)),
+      new Event("Event 4", TimeRange.fromStartEnd(300, 360, false),
+          Arrays.asList(PERSON_A, PERSON_B)),
+      new Event("Event 5", TimeRange.fromStartEnd(400, 460, false), Arrays.asList(PERSON_C)));
+
+  @Test
+  public void overlappingAndTouchingTimesAreMerged() {
+    FreeBusyCache cache = new FreeBusyCache(10);
+
+    IntervalSet actual = cache.getMergedBusyTimes(AttendeeIndex.of(EVENTS), PERSON_A);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(60, 180, false), TimeRange.fromStartEnd(300, 360, false));
+
+    Assert.assertEquals(expected, actual.toTimeRanges());
+  }
+
+  @Test
+  public void repeatedLookupsHit() {
+    FreeBusyCache cache = new FreeBusyCache(10);
+    AttendeeIndex index = AttendeeIndex.of(EVENTS);
+
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_B);
+
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void newIndexVersionMisses() {
+    FreeBusyCache cache = new FreeBusyCache(10);
+    cache.getMergedBusyTimes(AttendeeIndex.of(EVENTS), PERSON_A);
+
+    AttendeeIndex changed = AttendeeIndex.of(Arrays.asList(
+        new Event("Event 6", TimeRange.fromStartEnd(0, 30, false), Arrays.asList(PERSON_A))));
+    IntervalSet actual = cache.getMergedBusyTimes(changed, PERSON_A);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 30, false)), actual.toTimeRanges());
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void unchangedAttendeeHitsAfterEdit() {
+    FreeBusyCache cache = new FreeBusyCache(10);
+    AttendeeIndex index = AttendeeIndex.of(EVENTS);
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_C);
+
+    AttendeeIndex changed = index.withChange(null,
+        new Event("Event 6", TimeRange.fromStartEnd(0, 30, false), Arrays.asList(PERSON_A)));
+    cache.getMergedBusyTimes(changed, PERSON_A);
+    cache.getMergedBusyTimes(changed, PERSON_C);
+
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedAttendeeIsEvicted() {
+    FreeBusyCache cache = new FreeBusyCache(2);
+    AttendeeIndex index = AttendeeIndex.of(EVENTS);
+
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_B);
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_C);
+    Assert.assertEquals(2, cache.size());
+
+    // B was used least recently, so looking them up again misses while A still hits.
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_B);
+    Assert.assertEquals(2, cache.getHitCount());
+    Assert.assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void invalidatedAttendeeMisses() {
+    FreeBusyCache cache = new FreeBusyCache(10);
+    AttendeeIndex index = AttendeeIndex.of(EVENTS);
+
+    cache.getMergedBusyTimes(index, PERSON_A);
+    cache.invalidate(PERSON_A);
+    cache.getMergedBusyTimes(index, PERSON_A);
+
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HistogramTest {
+  @Test
+  public void emptyHistogramReportsZero() {
+    Histogram histogram = new Histogram();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMean(), 0);
+    Assert.assertEquals(0, histogram.getPercentile(99));
+    Assert.assertEquals(0, histogram.getMax());
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    Histogram histogram = new Histogram();
+    for (int value = 0; value < 8; value++) {
+      histogram.record(value);
+    }
+
+    Assert.assertEquals(8, histogram.getCount());
+    Assert.assertEquals(3.5, histogram.getMean(), 0);
+    Assert.assertEquals(3, histogram.getPercentile(50));
+    Assert.assertEquals(7, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void percentilesAreWithinAQuarter() {
+    Histogram histogram = new Histogram();
+    for (int value = 1; value <= 100000; value++) {
+      histogram.record(value);
+    }
+
+    long median = histogram.getPercentile(50);
+    long p99 = histogram.getPercentile(99);
+    Assert.assertTrue(median >= 50000 && median <= 62500);
+    Assert.assertTrue(p99 >= 99000 && p99 <= 100000);
+    Assert.assertEquals(100000, histogram.getMax());
+  }
+
+  @Test
+  public void bucketsCoverEveryLong() {
+    Assert.assertEquals(Long.MAX_VALUE, Histogram.upperBound(Histogram.bucket(Long.MAX_VALUE)));
+    for (long value : new long[] {5, 8, 9, 1000, 1L << 40}) {
+      Assert.assertTrue(Histogram.upperBound(Histogram.bucket(value)) >= value);
+      Assert.assertTrue(Histogram.upperBound(Histogram.bucket(value) - 1) < value);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final long DAY = EpochTimeRange.MINUTES_PER_DAY;
+  private static final long HOUR = 60;
+
+  // 2020-01-01T00:00Z, and the four weeks that follow it.
+  private static final long START = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond() / 60;
+  private static final EpochTimeRange FOUR_WEEKS =
+      EpochTimeRange.fromStartDuration(START, 28 * DAY);
+
+  private HorizonCalendar calendar;
+  private HorizonMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    calendar = new HorizonCalendar();
+    query = new HorizonMeetingQuery();
+  }
+
+  @Test
+  public void freeAttendeesGetTheWholeWindow() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 3);
+
+    Assert.assertEquals(Arrays.asList(FOUR_WEEKS), actual);
+  }
+
+  @Test
+  public void meetingsCanBeLongerThanADay() {
+    // A is busy for the first day, then free for two days, then busy again.
+    calendar.add(Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START, DAY));
+    calendar.add(Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START + 3 * DAY, DAY));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 2 * DAY);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 1);
+    List<EpochTimeRange> expected =
+        Arrays.asList(EpochTimeRange.fromStartDuration(START + DAY, 2 * DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void stopsAtLimit() {
+    // A has a one hour meeting at the start of every day.
+    for (int day = 0; day < 28; day++) {
+      calendar.add(
+          Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START + day * DAY, HOUR));
+    }
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 2);
+    List<EpochTimeRange> expected =
+        Arrays.asList(EpochTimeRange.fromStartEnd(START + HOUR, START + DAY),
+            EpochTimeRange.fromStartEnd(START + DAY + HOUR, START + 2 * DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void searchStartsInsideABusyTime() {
+    // The window opens in the middle of a meeting, so the first free time is when it ends.
+    calendar.add(
+        Arrays.asList(PERSON_A), EpochTimeRange.fromStartEnd(START - HOUR, START + HOUR));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 1);
+    List<EpochTimeRange> expected =
+        Arrays.asList(EpochTimeRange.fromStartEnd(START + HOUR, FOUR_WEEKS.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void overlappingAndTouchingEventsAreMerged() {
+    // Events  : |--A--|
+    //              |--B--|--A--|
+    // Options :                |-----...
+    calendar.add(Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START, 2 * HOUR));
+    calendar.add(Arrays.asList(PERSON_B), EpochTimeRange.fromStartDuration(START + HOUR, 2 * HOUR));
+    calendar.add(
+        Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START + 3 * HOUR, HOUR));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 1);
+    List<EpochTimeRange> expected =
+        Arrays.asList(EpochTimeRange.fromStartEnd(START + 4 * HOUR, FOUR_WEEKS.end()));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(2, calendar.getTimeline(PERSON_A).size());
+  }
+
+  @Test
+  public void zeroDurationEventsSplitFreeTime() {
+    // Events  :       |A|
+    // Day     : |---------------------...
+    // Options : |-----|-------------...
+    calendar.add(Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START + DAY, 0));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 2);
+    List<EpochTimeRange> expected = Arrays.asList(EpochTimeRange.fromStartDuration(START, DAY),
+        EpochTimeRange.fromStartEnd(START + DAY, FOUR_WEEKS.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesDroppedOnlyWhenNothingWorks() {
+    // C is busy for the whole window, so the answer ignores them.
+    calendar.add(Arrays.asList(PERSON_C), FOUR_WEEKS);
+    calendar.add(Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START, DAY));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 1);
+    List<EpochTimeRange> expected =
+        Arrays.asList(EpochTimeRange.fromStartEnd(START + DAY, FOUR_WEEKS.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void singleDayEventsCanBePlacedOnAnyDay() {
+    long epochDay = START / DAY + 1;
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY, true),
+        Arrays.asList(PERSON_A)));
+    calendar.addDay(epochDay, events);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 2);
+    List<EpochTimeRange> expected = Arrays.asList(EpochTimeRange.fromStartDuration(START, DAY),
+        EpochTimeRange.fromStartEnd(START + 2 * DAY, FOUR_WEEKS.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void recurringEventsBlockTheirOccurrences() {
+    // A has a daily meeting for the first 23 hours of every day.
+    RecurringEvent event = new RecurringEvent("Focus",
+        EpochTimeRange.fromStartDuration(START, 23 * HOUR), RecurringEvent.DAILY,
+        Arrays.asList(PERSON_A));
+    calendar.addRecurring(event, FOUR_WEEKS);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual = query.query(calendar, request, FOUR_WEEKS, 2);
+    List<EpochTimeRange> expected = Arrays.asList(
+        EpochTimeRange.fromStartDuration(START + 23 * HOUR, HOUR),
+        EpochTimeRange.fromStartDuration(START + DAY + 23 * HOUR, HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingHoursBlockEveryDay() {
+    // A works from 09:00 to 17:00 UTC and has a meeting at 10:00 on the first day. B has no hours.
+    WorkingHours workingHours = WorkingHours.NONE.with(PERSON_A, 9 * 60, 17 * 60, 0);
+    calendar.add(
+        Arrays.asList(PERSON_A), EpochTimeRange.fromStartDuration(START + 10 * HOUR, HOUR));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), HOUR);
+
+    List<EpochTimeRange> actual =
+        query.withWorkingHours(workingHours).query(calendar, request, FOUR_WEEKS, 3);
+    List<EpochTimeRange> expected = Arrays.asList(
+        EpochTimeRange.fromStartDuration(START + 9 * HOUR, HOUR),
+        EpochTimeRange.fromStartEnd(START + 11 * HOUR, START + 17 * HOUR),
+        EpochTimeRange.fromStartEnd(START + DAY + 9 * HOUR, START + DAY + 17 * HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingHoursApplyFromTheMiddleOfADay() {
+    WorkingHours workingHours = WorkingHours.NONE.with(PERSON_A, 9 * 60, 17 * 60, 0);
+    EpochTimeRange window = EpochTimeRange.fromStartEnd(START + 12 * HOUR, START + DAY + 10 * HOUR);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<EpochTimeRange> actual =
+        query.withWorkingHours(workingHours).query(calendar, request, window, 3);
+    List<EpochTimeRange> expected = Arrays.asList(
+        EpochTimeRange.fromStartEnd(START + 12 * HOUR, START + 17 * HOUR),
+        EpochTimeRange.fromStartEnd(START + DAY + 9 * HOUR, START + DAY + 10 * HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
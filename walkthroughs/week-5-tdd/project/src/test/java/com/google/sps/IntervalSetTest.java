@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalSetTest {
+  private static IntervalSet intervals(int... bounds) {
+    IntervalSet set = new IntervalSet(1);
+    for (int i = 0; i < bounds.length; i += 2) {
+      set.add(bounds[i], bounds[i + 1]);
+    }
+    return set;
+  }
+
+  @Test
+  public void sortOrdersByStartThenEnd() {
+    IntervalSet set = intervals(300, 400, 100, 250, 100, 200, 0, 30);
+    set.sort();
+
+    Assert.assertEquals(intervals(0, 30, 100, 200, 100, 250, 300, 400), set);
+  }
+
+  @Test
+  public void mergedJoinsOverlappingAndTouchingIntervals() {
+    IntervalSet set = intervals(0, 30, 30, 60, 50, 90, 100, 120, 105, 110);
+
+    Assert.assertEquals(intervals(0, 90, 100, 120), set.merged());
+  }
+
+  @Test
+  public void union() {
+    IntervalSet first = intervals(0, 30, 100, 200);
+    IntervalSet second = intervals(20, 50, 200, 300, 400, 500);
+
+    Assert.assertEquals(intervals(0, 50, 100, 300, 400, 500), first.union(second));
+  }
+
+  @Test
+  public void intersection() {
+    IntervalSet first = intervals(0, 100, 200, 300);
+    IntervalSet second = intervals(50, 250, 280, 400);
+
+    Assert.assertEquals(intervals(50, 100, 200, 250, 280, 300), first.intersection(second));
+    Assert.assertTrue(first.intersection(intervals(100, 200)).isEmpty());
+  }
+
+  @Test
+  public void complementWithinDay() {
+    IntervalSet busy = intervals(0, 60, 30, 90, 600, 700);
+
+    Assert.assertEquals(
+        intervals(90, 600, 700, TimeRange.WHOLE_DAY.end()),
+        busy.complement(TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end()));
+  }
+
+  @Test
+  public void gapsSkipShortGapsAndClampToWindow() {
+    IntervalSet busy = intervals(100, 200, 210, 300, 1400, 1500);
+
+    Assert.assertEquals(intervals(0, 100, 300, 1400), busy.gaps(0, 1440, 30));
+  }
+
+  @Test
+  public void noIntervalsLeavesWholeWindow() {
+    Assert.assertEquals(intervals(0, 1440), new IntervalSet().complement(0, 1440));
+  }
+
+  @Test
+  public void toTimeRanges() {
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 30, false), TimeRange.fromStartEnd(60, 90, false)),
+        intervals(0, 30, 60, 90).toTimeRanges());
+  }
+
+  @Test
+  public void mergeSortedInterleavesRuns() {
+    IntervalSet merged =
+        IntervalSet.mergeSorted(
+            Arrays.asList(
+                intervals(0, 30, 200, 300),
+                new IntervalSet(),
+                intervals(10, 20, 100, 150, 400, 500),
+                intervals(100, 120)));
+
+    Assert.assertEquals(
+        intervals(0, 30, 10, 20, 100, 120, 100, 150, 200, 300, 400, 500), merged);
+  }
+
+  @Test
+  public void mergeSortedOfNoRunsIsEmpty() {
+    Assert.assertTrue(IntervalSet.mergeSorted(Arrays.<IntervalSet>asList()).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void startAfterEndIsRejected() {
+    new IntervalSet().add(10, 5);
+  }
+}
@@ -0,0 +1,149 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class JsonCodecTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static MeetingRequest read(String json) {
+    return JsonCodec.readMeetingRequest(new StringReader(json));
+  }
+
+  @Test
+  public void readsEveryField() {
+    MeetingRequest request = read("{\"attendees\": [\"Person A\"],"
+        + " \"optional_attendees\": [\"Person B\", \"Person C\"],"
+        + " \"optional_attendee_weights\": {\"Person C\": 3},"
+        + " \"maximize_optional_attendees\": true, \"duration\": 45,"
+        + " \"resource_pools\": [[\"Room A\", \"Room B\"]]}");
+
+    Assert.assertEquals(Collections.singleton(PERSON_A), new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(2, request.getOptionalAttendees().size());
+    Assert.assertEquals(1, request.getOptionalAttendeeWeight(PERSON_B));
+    Assert.assertEquals(3, request.getOptionalAttendeeWeight(PERSON_C));
+    Assert.assertTrue(request.isMaximizingOptionalAttendees());
+    Assert.assertEquals(45, request.getDuration());
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("Room A", "Room B")), request.getResourcePools());
+  }
+
+  @Test
+  public void missingFieldsTakeDefaults() {
+    MeetingRequest request = read("{\"attendees\": [\"Person A\"], \"duration\": 30}");
+
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+    Assert.assertFalse(request.isMaximizingOptionalAttendees());
+    Assert.assertTrue(request.getResourcePools().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendeeIds().size() == 0);
+  }
+
+  @Test
+  public void unknownAndNullFieldsAreSkipped() {
+    MeetingRequest request =
+        read("{\"attendees\": [\"Person A\"], \"colour\": {\"r\": [1]},"
+            + " \"optional_attendees\": null, \"duration\": 30}");
+
+    Assert.assertEquals(Collections.singleton(PERSON_A), new HashSet<>(request.getAttendees()));
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+
+  @Test
+  public void emptyBodyIsNull() {
+    Assert.assertNull(read(""));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidWeightIsRejected() {
+    read("{\"optional_attendees\": [\"Person B\"],"
+        + " \"optional_attendee_weights\": {\"Person B\": 0}, \"duration\": 30}");
+  }
+
+  @Test
+  public void readsArrayOfRequests() {
+    List<MeetingRequest> requests = JsonCodec.readMeetingRequests(new StringReader(
+        "[{\"attendees\": [\"Person A\"], \"duration\": 30}, {\"duration\": 60}]"));
+
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(
+        Collections.singleton(PERSON_A), new HashSet<>(requests.get(0).getAttendees()));
+    Assert.assertEquals(60, requests.get(1).getDuration());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void nullInArrayIsRejected() {
+    JsonCodec.readMeetingRequests(new StringReader("[{\"duration\": 30}, null]"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void malformedArrayIsRejected() {
+    JsonCodec.readMeetingRequests(new StringReader("[{\"duration\": "));
+  }
+
+  @Test
+  public void requestsRoundTrip() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    request.addOptionalAttendee(PERSON_B, 2);
+    request.addResourcePool(Arrays.asList("Room A"));
+
+    MeetingRequest actual = read(JsonCodec.GSON.toJson(request));
+
+    Assert.assertEquals(
+        new HashSet<>(request.getAttendees()), new HashSet<>(actual.getAttendees()));
+    Assert.assertEquals(new HashSet<>(request.getOptionalAttendees()),
+        new HashSet<>(actual.getOptionalAttendees()));
+    Assert.assertEquals(2, actual.getOptionalAttendeeWeight(PERSON_B));
+    Assert.assertEquals(request.getDuration(), actual.getDuration());
+    Assert.assertEquals(request.getResourcePools(), actual.getResourcePools());
+  }
+
+  @Test
+  public void timeRangesMatchReflection() throws Exception {
+    List<TimeRange> times =
+        Arrays.asList(TimeRange.fromStartDuration(0, 30), TimeRange.fromStartDuration(90, 60));
+    StringWriter writer = new StringWriter();
+
+    JsonCodec.write(times, writer);
+
+    Assert.assertEquals(new Gson().toJson(times), writer.toString());
+  }
+
+  @Test
+  public void slotsMatchReflection() throws Exception {
+    List<ResourceSlot> slots = Arrays.asList(
+        new ResourceSlot(TimeRange.fromStartDuration(0, 30), Arrays.asList("Room A")));
+    StringWriter writer = new StringWriter();
+
+    JsonCodec.write(slots, writer);
+
+    Assert.assertEquals(new Gson().toJson(slots), writer.toString());
+  }
+}
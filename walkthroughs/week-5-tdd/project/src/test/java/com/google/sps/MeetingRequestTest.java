@@ -44,4 +44,59 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void OptionalAttendeesCountOnceByDefault() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C, 3);
+
+    Assert.assertEquals(1, request.getOptionalAttendeeWeight(PERSON_B));
+    Assert.assertEquals(3, request.getOptionalAttendeeWeight(PERSON_C));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void CantAddOptionalAttendeeWithoutWeight() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B, 0);
+  }
+
+  @Test
+  public void RequestsDontInternAttendees() {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    int sizeBefore = dictionary.size();
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Only In A Request"), DURATION_1_HOUR);
+    request.addOptionalAttendee("Only Optional In A Request");
+
+    Assert.assertEquals(0, request.getAttendeeIds().size());
+    Assert.assertEquals(0, request.getOptionalAttendeeIds().size());
+    Assert.assertEquals(sizeBefore, dictionary.size());
+  }
+
+  @Test
+  public void AttendeesFoundAfterTheirFirstEvent() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Late Person"), DURATION_1_HOUR);
+    Assert.assertEquals(0, request.getAttendeeIds().size());
+
+    new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Late Person"));
+
+    Assert.assertEquals(1, request.getAttendeeIds().size());
+  }
+
+  @Test
+  public void UnknownAttendeesAreLookedUpAgainOnlyOnceTheDictionaryGrows() {
+    new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Known Person"));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Known Person", "Unknown Person"), DURATION_1_HOUR);
+
+    AttendeeSet ids = request.getAttendeeIds();
+    Assert.assertEquals(1, ids.size());
+    Assert.assertSame(ids, request.getAttendeeIds());
+
+    new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList("Unknown Person"));
+
+    Assert.assertEquals(2, request.getAttendeeIds().size());
+  }
+}
@@ -0,0 +1,205 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingSchedulerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  /** Returns a day on which {@code attendee} is only free from {@code start} to {@code end}. */
+  private static AvailabilityIndex freeOnlyBetween(String attendee, int start, int end) {
+    return AvailabilityIndex.of(Arrays.asList(
+        new Event("Before", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, start, false),
+            Arrays.asList(attendee)),
+        new Event("After", TimeRange.fromStartEnd(end, TimeRange.END_OF_DAY, true),
+            Arrays.asList(attendee))));
+  }
+
+  @Test
+  public void placedMeetingsBlockLaterOnes() {
+    AvailabilityIndex day = freeOnlyBetween(PERSON_A, TIME_0900AM, TIME_0500PM);
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_C), DURATION_60_MINUTES));
+
+    Schedule schedule = new MeetingScheduler().schedule(Arrays.asList(day), requests);
+
+    List<ScheduledMeeting> meetings = schedule.getScheduledMeetings();
+    Assert.assertEquals(2, meetings.size());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        meetings.get(0).getWhen());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+        meetings.get(1).getWhen());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_C)),
+        meetings.get(1).getEvent().getAttendees());
+    Assert.assertEquals(Arrays.asList(), schedule.getUnscheduledRequests());
+
+    // The meetings are now in the day's calendar.
+    Assert.assertEquals(4, day.size());
+  }
+
+  @Test
+  public void unplacedMeetingsAreReported() {
+    AvailabilityIndex day = freeOnlyBetween(PERSON_A, TIME_1000AM, TIME_1100AM);
+    MeetingRequest oneOnOne =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest group =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES);
+
+    Schedule schedule =
+        new MeetingScheduler().schedule(Arrays.asList(day), Arrays.asList(oneOnOne, group));
+
+    Assert.assertEquals(1, schedule.getScheduledMeetings().size());
+    Assert.assertSame(oneOnOne, schedule.getScheduledMeetings().get(0).getRequest());
+    Assert.assertEquals(Arrays.asList(group), schedule.getUnscheduledRequests());
+  }
+
+  @Test
+  public void priorityDecidesWhichMeetingIsPlaced() {
+    AvailabilityIndex day = freeOnlyBetween(PERSON_A, TIME_1000AM, TIME_1100AM);
+    MeetingRequest oneOnOne =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest group =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES);
+
+    Schedule schedule = new MeetingScheduler().schedule(
+        Arrays.asList(day), Arrays.asList(oneOnOne, group), MeetingScheduler.LARGEST_FIRST);
+
+    Assert.assertEquals(1, schedule.getScheduledMeetings().size());
+    Assert.assertSame(group, schedule.getScheduledMeetings().get(0).getRequest());
+    Assert.assertEquals(Arrays.asList(oneOnOne), schedule.getUnscheduledRequests());
+  }
+
+  @Test
+  public void fullDaySpillsToNextDay() {
+    List<AvailabilityIndex> days = Arrays.asList(
+        freeOnlyBetween(PERSON_A, TIME_1000AM, TIME_1100AM),
+        freeOnlyBetween(PERSON_A, TIME_0900AM, TIME_0500PM));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_C), DURATION_60_MINUTES));
+
+    List<ScheduledMeeting> meetings =
+        new MeetingScheduler().schedule(days, requests).getScheduledMeetings();
+
+    Assert.assertEquals(0, meetings.get(0).getDay());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+        meetings.get(0).getWhen());
+    Assert.assertEquals(1, meetings.get(1).getDay());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        meetings.get(1).getWhen());
+  }
+
+  @Test
+  public void optionalAttendeesAreOnlyBookedWhenFree() {
+    // Person C is busy when Person A is free, so the meeting goes ahead without them.
+    AvailabilityIndex day = freeOnlyBetween(PERSON_A, TIME_1000AM, TIME_1100AM);
+    day.addEvent(new Event("Busy", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        Arrays.asList(PERSON_C)));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<ScheduledMeeting> meetings = new MeetingScheduler()
+        .schedule(Arrays.asList(day), Arrays.asList(request))
+        .getScheduledMeetings();
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)),
+        meetings.get(0).getEvent().getAttendees());
+  }
+
+  @Test
+  public void workingHoursAreKept() {
+    MeetingScheduler scheduler = new MeetingScheduler(new FindMeetingQuery().withWorkingHours(
+        WorkingHours.NONE.with(PERSON_B, TIME_1000AM, TIME_0500PM, 0)));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES);
+
+    List<ScheduledMeeting> meetings = scheduler
+        .schedule(Arrays.asList(new AvailabilityIndex()), Arrays.asList(request))
+        .getScheduledMeetings();
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+        meetings.get(0).getWhen());
+  }
+
+  @Test
+  public void meetingsLongerThanADayAreNotPlaced() {
+    MeetingRequest request = new MeetingRequest(
+        Collections.emptySet(), TimeRange.WHOLE_DAY.duration() + 1);
+
+    Schedule schedule = new MeetingScheduler()
+        .schedule(Arrays.asList(new AvailabilityIndex()), Arrays.asList(request));
+
+    Assert.assertEquals(Arrays.asList(request), schedule.getUnscheduledRequests());
+  }
+
+  @Test
+  public void concurrentSchedulersNeverDoubleBook() throws Exception {
+    List<AvailabilityIndex> days = Arrays.asList(new AvailabilityIndex(), new AvailabilityIndex());
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      requests.add(new MeetingRequest(Arrays.asList(PERSON_A, "Person " + i), DURATION_30_MINUTES));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Schedule>> schedules = new ArrayList<>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        schedules.add(executor.submit(() -> new MeetingScheduler().schedule(days, requests)));
+      }
+
+      // Person A attends every meeting, so no two meetings on a day may overlap. The two days hold
+      // 96 half hours, so all 120 requests cannot fit, but every one of those 96 gets booked.
+      List<List<TimeRange>> booked = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+      for (Future<Schedule> schedule : schedules) {
+        for (ScheduledMeeting meeting : schedule.get(10, TimeUnit.SECONDS).getScheduledMeetings()) {
+          for (TimeRange other : booked.get(meeting.getDay())) {
+            Assert.assertFalse(meeting.getWhen().overlaps(other));
+          }
+          booked.get(meeting.getDay()).add(meeting.getWhen());
+        }
+      }
+      Assert.assertEquals(96, booked.get(0).size() + booked.get(1).size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MinuteBitmapTest {
+  @Test
+  public void emptyBitmapIsFreeAllDay() {
+    IntervalSet free = new IntervalSet();
+    new MinuteBitmap().addFreeTimes(free, 30);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), free.toTimeRanges());
+  }
+
+  @Test
+  public void rangesPastMidnightAreClamped() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.mark(TimeRange.fromStartDuration(20 * 60, 24 * 60));
+
+    IntervalSet free = new IntervalSet();
+    bitmap.addFreeTimes(free, 30);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 20 * 60, false)), free.toTimeRanges());
+  }
+
+  @Test
+  public void orCombinesBitmapsWithoutChangingTheOther() {
+    MinuteBitmap first = new MinuteBitmap();
+    first.mark(TimeRange.fromStartDuration(100, 50));
+    MinuteBitmap second = new MinuteBitmap();
+    second.mark(TimeRange.fromStartDuration(300, 50));
+
+    MinuteBitmap combined = first.copy();
+    combined.or(second);
+
+    IntervalSet free = new IntervalSet();
+    combined.addFreeTimes(free, 1);
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 100, false), TimeRange.fromStartEnd(150, 300, false),
+            TimeRange.fromStartEnd(350, 24 * 60, false)),
+        free.toTimeRanges());
+
+    free = new IntervalSet();
+    first.addFreeTimes(free, 1);
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(0, 100, false), TimeRange.fromStartEnd(150, 24 * 60, false)),
+        free.toTimeRanges());
+  }
+
+  @Test
+  public void shortRunsAreSkipped() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.mark(TimeRange.fromStartEnd(0, 600, false));
+    bitmap.mark(TimeRange.fromStartEnd(620, 24 * 60, false));
+
+    IntervalSet free = new IntervalSet();
+    bitmap.addFreeTimes(free, 30);
+
+    Assert.assertTrue(free.isEmpty());
+  }
+
+  @Test
+  public void rangesWithNoDurationSplitFreeTime() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.mark(TimeRange.fromStartDuration(0, 60));
+    bitmap.mark(TimeRange.fromStartDuration(60, 0));
+    bitmap.mark(TimeRange.fromStartDuration(600, 0));
+
+    MinuteBitmap combined = new MinuteBitmap();
+    combined.or(bitmap);
+
+    IntervalSet free = new IntervalSet();
+    combined.addFreeTimes(free, 30);
+
+    // The split at the end of the busy time changes nothing.
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(60, 600, false), TimeRange.fromStartEnd(600, 24 * 60, false)),
+        free.toTimeRanges());
+  }
+}
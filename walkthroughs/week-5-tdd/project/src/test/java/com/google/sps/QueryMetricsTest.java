@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryMetricsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // A is busy in the morning and B, who is optional, all afternoon and evening.
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(540, 60), Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartEnd(0, 1440, false), Arrays.asList(PERSON_B)));
+
+  private static MeetingRequest request() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+    return request;
+  }
+
+  @Test
+  public void everyPhaseOfASampledQueryIsRecorded() {
+    QueryMetrics metrics = new QueryMetrics(1);
+    FindMeetingQuery query =
+        new FindMeetingQuery().withMetrics(metrics);
+
+    query.query(EVENTS, request());
+
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      Assert.assertEquals(phase.name(), 1, metrics.getLatency(phase).getCount());
+    }
+    Assert.assertEquals(2, metrics.getSize(QueryMetrics.Size.EVENTS_SCANNED).getMax());
+    Assert.assertEquals(2, metrics.getSize(QueryMetrics.Size.BLOCKED_INTERVALS).getMax());
+    Assert.assertEquals(2, metrics.getSize(QueryMetrics.Size.CANDIDATE_GAPS).getMax());
+  }
+
+  @Test
+  public void fallbackIsOnlyRecordedWhenTaken() {
+    QueryMetrics metrics = new QueryMetrics(1);
+    FindMeetingQuery query =
+        new FindMeetingQuery().withFreeBusyCache(new FreeBusyCache(10)).withMetrics(metrics);
+
+    query.query(AttendeeIndex.of(EVENTS), new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(1, metrics.getLatency(QueryMetrics.Phase.GAPS).getCount());
+    Assert.assertEquals(0, metrics.getLatency(QueryMetrics.Phase.FALLBACK).getCount());
+    Assert.assertEquals(1, metrics.getLatency(QueryMetrics.Phase.TOTAL).getCount());
+  }
+
+  @Test
+  public void everyEngineRecordsCollectAndGaps() {
+    for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+      QueryMetrics metrics = new QueryMetrics(1);
+
+      new FindMeetingQuery().withEngine(engine).withMetrics(metrics).query(EVENTS, request());
+
+      Assert.assertEquals(
+          engine.name(), 1, metrics.getLatency(QueryMetrics.Phase.COLLECT).getCount());
+      Assert.assertEquals(
+          engine.name(), 1, metrics.getLatency(QueryMetrics.Phase.GAPS).getCount());
+    }
+  }
+
+  @Test
+  public void unsampledQueriesRecordNothing() {
+    QueryMetrics metrics = new QueryMetrics(0);
+    FindMeetingQuery query =
+        new FindMeetingQuery().withMetrics(metrics);
+
+    query.query(EVENTS, request());
+
+    Assert.assertEquals(0, metrics.getLatency(QueryMetrics.Phase.TOTAL).getCount());
+    Assert.assertEquals(0, metrics.getSize(QueryMetrics.Size.EVENTS_SCANNED).getCount());
+  }
+
+  @Test
+  public void roughlyOneInEveryFewQueriesIsSampled() {
+    QueryMetrics metrics = new QueryMetrics(10);
+    FindMeetingQuery query =
+        new FindMeetingQuery().withMetrics(metrics);
+
+    for (int i = 0; i < 10000; i++) {
+      query.query(EVENTS, request());
+    }
+
+    long sampled = metrics.getLatency(QueryMetrics.Phase.TOTAL).getCount();
+    Assert.assertTrue(String.valueOf(sampled), sampled > 700 && sampled < 1300);
+  }
+}
@@ -0,0 +1,186 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryResultCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static MeetingRequest request(long duration, String... attendees) {
+    return new MeetingRequest(Arrays.asList(attendees), duration);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+    MeetingRequest first = request(30, PERSON_A, PERSON_B);
+    first.addOptionalAttendee(PERSON_C);
+    MeetingRequest second = request(30, PERSON_B, PERSON_A);
+    second.addOptionalAttendee(PERSON_C);
+
+    cache.get(first, 1, () -> "answer");
+    String actual = cache.get(second, 1, () -> "recomputed");
+
+    Assert.assertEquals("answer", actual);
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.getMissCount());
+    Assert.assertEquals(0.5, cache.getHitRatio(), 0);
+  }
+
+  @Test
+  public void differentRequestsMiss() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+    MeetingRequest optional = request(30, PERSON_A);
+    optional.addOptionalAttendee(PERSON_B);
+
+    cache.get(request(30, PERSON_A), 1, () -> "answer");
+    cache.get(request(60, PERSON_A), 1, () -> "answer");
+    cache.get(request(30, PERSON_A, PERSON_B), 1, () -> "answer");
+    cache.get(optional, 1, () -> "answer");
+
+    Assert.assertEquals(0, cache.getHitCount());
+    Assert.assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void changingACachedRequestDoesNotChangeItsKey() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+    MeetingRequest changed = request(30, PERSON_A);
+    changed.addResourcePool(Arrays.asList("Room 1"));
+
+    cache.get(changed, 1, () -> "one room");
+    changed.addResourcePool(Arrays.asList("Room 2"));
+
+    MeetingRequest oneRoom = request(30, PERSON_A);
+    oneRoom.addResourcePool(Arrays.asList("Room 1"));
+    Assert.assertEquals("one room", cache.getIfPresent(oneRoom, 1));
+    Assert.assertNull(cache.getIfPresent(changed, 1));
+  }
+
+  @Test
+  public void newVersionMisses() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+
+    cache.get(request(30, PERSON_A), 1, () -> "old");
+    String actual = cache.get(request(30, PERSON_A), 2, () -> "new");
+
+    Assert.assertEquals("new", actual);
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void getIfPresentNeverComputes() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+
+    Assert.assertNull(cache.getIfPresent(request(30, PERSON_A), 1));
+    Assert.assertEquals(0, cache.size());
+
+    cache.get(request(30, PERSON_A), 1, () -> "answer");
+    Assert.assertEquals("answer", cache.getIfPresent(request(30, PERSON_A), 1));
+    Assert.assertNull(cache.getIfPresent(request(30, PERSON_A), 2));
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedRequestIsEvicted() {
+    QueryResultCache<String> cache = new QueryResultCache<>(2);
+
+    cache.get(request(30, PERSON_A), 1, () -> "A");
+    cache.get(request(30, PERSON_B), 1, () -> "B");
+    cache.get(request(30, PERSON_A), 1, () -> "A");
+    cache.get(request(30, PERSON_C), 1, () -> "C");
+    Assert.assertEquals(2, cache.size());
+
+    // B was used least recently, so asking again misses while A still hits.
+    cache.get(request(30, PERSON_A), 1, () -> "A");
+    cache.get(request(30, PERSON_B), 1, () -> "B");
+    Assert.assertEquals(2, cache.getHitCount());
+    Assert.assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void failuresAreNotCached() {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+    try {
+      cache.get(request(30, PERSON_A), 1, () -> {
+        throw new IllegalStateException("failed");
+      });
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+
+    Assert.assertEquals("answer", cache.get(request(30, PERSON_A), 1, () -> "answer"));
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void concurrentMissesComputeOnce() throws Exception {
+    QueryResultCache<String> cache = new QueryResultCache<>(10);
+    AtomicInteger computations = new AtomicInteger();
+    CountDownLatch computing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<String> first = executor.submit(() -> cache.get(request(30, PERSON_A), 1, () -> {
+        computations.incrementAndGet();
+        computing.countDown();
+        await(release);
+        return "answer";
+      }));
+      computing.await();
+
+      Future<String> second = executor.submit(() -> cache.get(request(30, PERSON_A), 1, () -> {
+        computations.incrementAndGet();
+        return "recomputed";
+      }));
+      // The second lookup is counted as a hit as soon as it finds the computation.
+      while (cache.getHitCount() == 0) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      Assert.assertEquals("answer", first.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals("answer", second.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals(1, computations.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final long DAY = EpochTimeRange.MINUTES_PER_DAY;
+  private static final long HOUR = 60;
+
+  // 2020-01-01T00:00Z as minutes and as days since the epoch.
+  private static final long START = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond() / 60;
+  private static final long START_DAY = START / DAY;
+
+  // A stand-up from 9:00 to 9:30 every day, starting on 2020-01-01.
+  private static final EpochTimeRange STAND_UP =
+      EpochTimeRange.fromStartDuration(START + 9 * HOUR, 30);
+
+  @Test
+  public void dailyOccurrencesInAWeek() {
+    RecurringEvent event =
+        new RecurringEvent("Stand-up", STAND_UP, RecurringEvent.DAILY, Arrays.asList(PERSON_A));
+
+    List<EpochTimeRange> actual =
+        event.getOccurrences(EpochTimeRange.fromStartDuration(START + 100 * DAY, 7 * DAY));
+
+    Assert.assertEquals(7, actual.size());
+    Assert.assertEquals(
+        EpochTimeRange.fromStartDuration(START + 100 * DAY + 9 * HOUR, 30), actual.get(0));
+  }
+
+  @Test
+  public void everyFewDaysSkipsDaysInBetween() {
+    RecurringEvent event = new RecurringEvent("Review", STAND_UP, 3, Arrays.asList(PERSON_A));
+
+    List<EpochTimeRange> actual =
+        event.getOccurrences(EpochTimeRange.fromStartDuration(START + DAY, 7 * DAY));
+    List<EpochTimeRange> expected = Arrays.asList(
+        EpochTimeRange.fromStartDuration(START + 3 * DAY + 9 * HOUR, 30),
+        EpochTimeRange.fromStartDuration(START + 6 * DAY + 9 * HOUR, 30));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void exceptionsAndEndAreRespected() {
+    // Weekly, skipping the second week and ending before the fourth.
+    RecurringEvent event = new RecurringEvent("Review", STAND_UP, RecurringEvent.WEEKLY,
+        START + 21 * DAY, Arrays.asList(START_DAY + 7), Arrays.asList(PERSON_A));
+
+    List<EpochTimeRange> actual =
+        event.getOccurrences(EpochTimeRange.fromStartDuration(START, 52 * 7 * DAY));
+    List<EpochTimeRange> expected = Arrays.asList(
+        STAND_UP, EpochTimeRange.fromStartDuration(START + 14 * DAY + 9 * HOUR, 30));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void nothingBeforeTheFirstOccurrence() {
+    RecurringEvent event =
+        new RecurringEvent("Stand-up", STAND_UP, RecurringEvent.DAILY, Arrays.asList(PERSON_A));
+
+    Assert.assertTrue(event.getOccurrences(EpochTimeRange.fromStartDuration(START - DAY, DAY))
+                          .isEmpty());
+  }
+
+  @Test
+  public void overnightOccurrencesAreCutAtMidnight() {
+    // From 23:00 to 01:00 every day.
+    RecurringEvent event = new RecurringEvent("On call",
+        EpochTimeRange.fromStartDuration(START + 23 * HOUR, 2 * HOUR), RecurringEvent.DAILY,
+        Arrays.asList(PERSON_A));
+
+    List<TimeRange> actual = Arrays.asList(event.getEventsOn(START_DAY + 5).get(0).getWhen(),
+        event.getEventsOn(START_DAY + 5).get(1).getWhen());
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(0, 60),
+        TimeRange.fromStartEnd(23 * 60, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryExpandsRecurringEventsOnTheDay() {
+    RecurringEvent standUp =
+        new RecurringEvent("Stand-up", STAND_UP, RecurringEvent.DAILY, Arrays.asList(PERSON_A));
+    Collection<Event> events = Arrays.asList(
+        new Event("Lunch", TimeRange.fromStartDuration(12 * 60, 60), Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(
+        events, Collections.singletonList(standUp), START_DAY + 1000, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 9 * 60, false),
+        TimeRange.fromStartEnd(9 * 60 + 30, 12 * 60, false),
+        TimeRange.fromStartEnd(13 * 60, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void intervalMustBePositive() {
+    new RecurringEvent("Stand-up", STAND_UP, 0, Arrays.asList(PERSON_A));
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ResourcePoolIndexTest {
+  private static final String ROOM_A = "Room A";
+  private static final String ROOM_B = "Room B";
+  private static final String ROOM_C = "Room C";
+
+  private static IntervalSet intervals(int... bounds) {
+    IntervalSet set = new IntervalSet(1);
+    for (int i = 0; i < bounds.length; i += 2) {
+      set.add(bounds[i], bounds[i + 1]);
+    }
+    return set;
+  }
+
+  private static ResourceSlot slot(int start, int end, String... resources) {
+    return new ResourceSlot(TimeRange.fromStartEnd(start, end, false), Arrays.asList(resources));
+  }
+
+  @Test
+  public void splitsSlotWhereTheFreeResourceChanges() {
+    // Room A is free until 10:00 and room B from 5:00 to 15:00.
+    ResourcePoolIndex pool =
+        ResourcePoolIndex.of(
+            Arrays.asList(ROOM_A, ROOM_B),
+            Arrays.asList(intervals(600, 1440), intervals(0, 300, 900, 1440)),
+            60);
+
+    List<ResourceSlot> actual = pool.assign(Arrays.asList(slot(0, 1440)));
+
+    Assert.assertEquals(Arrays.asList(slot(0, 600, ROOM_A), slot(300, 900, ROOM_B)), actual);
+  }
+
+  @Test
+  public void dropsFreeTimesInsideLongerFreeTimes() {
+    // Room B is only free while room A is, so it is never needed.
+    ResourcePoolIndex pool =
+        ResourcePoolIndex.of(
+            Arrays.asList(ROOM_A, ROOM_B),
+            Arrays.asList(intervals(0, 100, 800, 1440), intervals(0, 200, 700, 1440)),
+            30);
+
+    List<ResourceSlot> actual = pool.assign(Arrays.asList(slot(0, 1440)));
+
+    Assert.assertEquals(Arrays.asList(slot(100, 800, ROOM_A)), actual);
+  }
+
+  @Test
+  public void dropsPartsShorterThanTheMeeting() {
+    ResourcePoolIndex pool =
+        ResourcePoolIndex.of(
+            Arrays.asList(ROOM_A, ROOM_B), Arrays.asList(intervals(600, 1440), intervals(0, 500)),
+            60);
+
+    List<ResourceSlot> actual = pool.assign(Arrays.asList(slot(550, 620), slot(700, 800)));
+
+    Assert.assertEquals(Arrays.asList(slot(550, 620, ROOM_B), slot(700, 800, ROOM_B)), actual);
+  }
+
+  @Test
+  public void keepsResourcesFromEarlierPools() {
+    ResourcePoolIndex pool =
+        ResourcePoolIndex.of(Arrays.asList(ROOM_C), Arrays.asList(intervals(0, 100)), 30);
+
+    List<ResourceSlot> actual = pool.assign(Arrays.asList(slot(0, 200, ROOM_A)));
+
+    Assert.assertEquals(Arrays.asList(slot(100, 200, ROOM_A, ROOM_C)), actual);
+  }
+
+  @Test
+  public void busyResourcesLeaveNoSlots() {
+    ResourcePoolIndex pool =
+        ResourcePoolIndex.of(
+            Collections.singletonList(ROOM_A), Collections.singletonList(intervals(0, 1440)), 30);
+
+    Assert.assertTrue(pool.assign(Arrays.asList(slot(0, 1440))).isEmpty());
+  }
+}
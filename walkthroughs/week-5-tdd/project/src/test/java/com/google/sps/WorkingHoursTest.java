@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0600 = TimeRange.getTimeInMinutes(6, 0);
+  private static final int TIME_0900 = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1400 = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1700 = TimeRange.getTimeInMinutes(17, 0);
+  private static final int TIME_2200 = TimeRange.getTimeInMinutes(22, 0);
+
+  private static IntervalSet intervals(int... bounds) {
+    IntervalSet intervals = new IntervalSet();
+    for (int i = 0; i < bounds.length; i += 2) {
+      intervals.add(bounds[i], bounds[i + 1]);
+    }
+    return intervals;
+  }
+
+  @Test
+  public void hoursInUtc() {
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, 0);
+
+    Assert.assertEquals(intervals(TIME_0900, TIME_1700), hours.getWorkingTimes(PERSON_A));
+    Assert.assertEquals(
+        intervals(TimeRange.START_OF_DAY, TIME_0900, TIME_1700, TimeRange.WHOLE_DAY.duration()),
+        hours.getOffHours(PERSON_A));
+  }
+
+  @Test
+  public void offsetShiftsHoursToUtc() {
+    // 9:00 to 17:00 at UTC-5 is 14:00 to 22:00 UTC.
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, -300);
+
+    Assert.assertEquals(intervals(TIME_1400, TIME_2200), hours.getWorkingTimes(PERSON_A));
+  }
+
+  @Test
+  public void offsetCanWrapHoursPastUtcMidnight() {
+    // 9:00 to 17:00 at UTC+10 is 23:00 to 7:00 UTC, which the UTC day sees as two parts.
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, 600);
+
+    Assert.assertEquals(
+        intervals(TimeRange.START_OF_DAY, TimeRange.getTimeInMinutes(7, 0),
+            TimeRange.getTimeInMinutes(23, 0), TimeRange.WHOLE_DAY.duration()),
+        hours.getWorkingTimes(PERSON_A));
+    Assert.assertEquals(intervals(TimeRange.getTimeInMinutes(7, 0),
+        TimeRange.getTimeInMinutes(23, 0)), hours.getOffHours(PERSON_A));
+  }
+
+  @Test
+  public void hoursCanRunPastLocalMidnight() {
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_2200, TIME_0600, 0);
+
+    Assert.assertEquals(
+        intervals(TimeRange.START_OF_DAY, TIME_0600, TIME_2200, TimeRange.WHOLE_DAY.duration()),
+        hours.getWorkingTimes(PERSON_A));
+  }
+
+  @Test
+  public void offHoursAreEventsAndMinutes() {
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, 0);
+
+    Assert.assertEquals(2, hours.getOffHoursEvents(PERSON_A).size());
+    Assert.assertEquals(Collections.singleton(PERSON_A),
+        hours.getOffHoursEvents(PERSON_A).get(0).getAttendees());
+    Assert.assertEquals(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900, false),
+        hours.getOffHoursEvents(PERSON_A).get(0).getWhen());
+
+    IntervalSet freeTimes = new IntervalSet();
+    hours.getOffHoursBitmap(PERSON_A).addFreeTimes(freeTimes, 1);
+    Assert.assertEquals(intervals(TIME_0900, TIME_1700), freeTimes);
+  }
+
+  @Test
+  public void peopleWithoutHoursWorkAllDay() {
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, 0);
+
+    Assert.assertNull(hours.getWorkingTimes(PERSON_B));
+    Assert.assertTrue(hours.getOffHours(PERSON_B).isEmpty());
+    Assert.assertNull(hours.getOffHoursBitmap(PERSON_B));
+    Assert.assertEquals(Arrays.asList(), hours.getOffHoursEvents(PERSON_B));
+  }
+
+  @Test
+  public void withReturnsACopy() {
+    WorkingHours hours = WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_1700, 0);
+
+    Assert.assertTrue(WorkingHours.NONE.isEmpty());
+    Assert.assertFalse(hours.isEmpty());
+    Assert.assertNull(WorkingHours.NONE.getWorkingTimes(PERSON_A));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyHoursAreRejected() {
+    WorkingHours.NONE.with(PERSON_A, TIME_0900, TIME_0900, 0);
+  }
+}
@@ -0,0 +1,203 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.sps.TimeRange;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class GetEventsServletTest {
+  private static final Event EVENT_A =
+      new Event("Event A", TimeRange.fromStartDuration(8 * 60, 60), Arrays.asList("Person A"));
+  private static final Event EVENT_B =
+      new Event("Event B", TimeRange.fromStartDuration(12 * 60, 30), Arrays.asList("Person B"));
+
+  private EventStore eventStore;
+  private GetEventsServlet servlet;
+
+  @Before
+  public void setUp() throws Exception {
+    eventStore = new EventStore(Arrays.asList(EVENT_A));
+    servlet = new GetEventsServlet();
+    servlet.init(config(eventStore));
+  }
+
+  @Test
+  public void matchesComparesWeakly() {
+    Assert.assertFalse(GetEventsServlet.matches(null, "\"abc\""));
+    Assert.assertTrue(GetEventsServlet.matches("\"abc\"", "\"abc\""));
+    Assert.assertTrue(GetEventsServlet.matches("W/\"abc\"", "\"abc\""));
+    Assert.assertTrue(GetEventsServlet.matches("\"xyz\", W/\"abc\"", "\"abc\""));
+    Assert.assertTrue(GetEventsServlet.matches("*", "\"abc\""));
+    Assert.assertFalse(GetEventsServlet.matches("\"xyz\"", "\"abc\""));
+    Assert.assertFalse(GetEventsServlet.matches("\"abc-gzip\"", "\"abc\""));
+  }
+
+  @Test
+  public void acceptsGzipUnlessQualityIsZero() {
+    Assert.assertFalse(GetEventsServlet.acceptsGzip(null));
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("gzip"));
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("deflate, GZIP;q=0.5"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("gzip;q=0"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("gzip; q=0.0"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("gzip;q=oops"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("deflate, br"));
+  }
+
+  @Test
+  public void responseIsBuiltOncePerVersion() throws IOException {
+    GetEventsServlet.Response first = servlet.getResponse(eventStore.getSnapshot());
+    Assert.assertSame(first, servlet.getResponse(eventStore.getSnapshot()));
+    Assert.assertArrayEquals(first.json, gunzip(first.gzipJson));
+    Assert.assertNotEquals(first.eTag, first.gzipETag);
+
+    eventStore.create(EVENT_B);
+    GetEventsServlet.Response second = servlet.getResponse(eventStore.getSnapshot());
+    Assert.assertEquals(first.version + 1, second.version);
+    Assert.assertNotEquals(first.eTag, second.eTag);
+    Assert.assertTrue(new String(second.json, StandardCharsets.UTF_8).contains("Event B"));
+  }
+
+  @Test
+  public void unchangedETagIsNotModified() throws IOException {
+    FakeResponse first = get(null, null);
+    Assert.assertEquals(HttpServletResponse.SC_OK, first.status);
+    String eTag = first.headers.get("ETag");
+
+    FakeResponse second = get(null, eTag);
+    Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, second.status);
+    Assert.assertEquals(0, second.body.size());
+
+    // Once the events change, the old ETag gets the new events.
+    eventStore.create(EVENT_B);
+    FakeResponse third = get(null, eTag);
+    Assert.assertEquals(HttpServletResponse.SC_OK, third.status);
+    Assert.assertNotEquals(eTag, third.headers.get("ETag"));
+  }
+
+  @Test
+  public void gzipWithZeroQualityIsNotCompressed() throws IOException {
+    FakeResponse compressed = get("gzip", null);
+    Assert.assertEquals("gzip", compressed.headers.get("Content-Encoding"));
+
+    FakeResponse plain = get("gzip;q=0", null);
+    Assert.assertNull(plain.headers.get("Content-Encoding"));
+    Assert.assertArrayEquals(gunzip(compressed.body.toByteArray()), plain.body.toByteArray());
+    Assert.assertTrue(plain.body.toString("UTF-8").contains("Event A"));
+  }
+
+  private FakeResponse get(String acceptEncoding, String ifNoneMatch) throws IOException {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("Accept-Encoding", acceptEncoding);
+    headers.put("If-None-Match", ifNoneMatch);
+    HttpServletRequest request = proxy(HttpServletRequest.class, (method, args) ->
+        method.equals("getHeader") ? headers.get((String) args[0]) : null);
+
+    FakeResponse response = new FakeResponse();
+    servlet.doGet(request, proxy(HttpServletResponse.class, response::handle));
+    return response;
+  }
+
+  private static ServletConfig config(EventStore eventStore) {
+    ServletContext context = proxy(ServletContext.class, (method, args) ->
+        method.equals("getAttribute") && EventStore.class.getName().equals(args[0])
+            ? eventStore
+            : null);
+    return proxy(ServletConfig.class, (method, args) ->
+        method.equals("getServletContext") ? context : null);
+  }
+
+  private static byte[] gunzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      byte[] buffer = new byte[4096];
+      for (int read; (read = in.read(buffer)) != -1; ) {
+        out.write(buffer, 0, read);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /** Answers a call on a proxied interface given the method name and arguments. */
+  private interface Handler {
+    Object handle(String method, Object[] args);
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> handler.handle(method.getName(), args)));
+  }
+
+  /** Records the status, headers and body a servlet sends. */
+  private static final class FakeResponse {
+    private int status = HttpServletResponse.SC_OK;
+    private final Map<String, String> headers = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private Object handle(String method, Object[] args) {
+      switch (method) {
+        case "setStatus":
+          status = (Integer) args[0];
+          return null;
+        case "setHeader":
+          headers.put((String) args[0], (String) args[1]);
+          return null;
+        case "getOutputStream":
+          return new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+              body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+              return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {}
+          };
+        default:
+          return null;
+      }
+    }
+  }
+}